@@ -1,16 +1,23 @@
 package com.fu.coffeeshop_management.server.config;
 
+import com.fu.coffeeshop_management.server.entity.User;
 import com.fu.coffeeshop_management.server.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
 
 /**
  * Configuration class for Spring Security beans.
@@ -21,6 +28,17 @@ public class ApplicationConfig {
 
     private final UserRepository userRepository;
 
+    @Value("${application.security.password.encoding:bcrypt}")
+    private String passwordEncoding;
+    @Value("${application.security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    @Value("${application.security.password.hash-threads:0}")
+    private int hashThreads;
+    @Value("${application.security.password.hash-queue:64}")
+    private int hashQueue;
+    @Value("${application.security.password.hash-max-wait-ms:5000}")
+    private long hashMaxWaitMillis;
+
     public ApplicationConfig(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
@@ -44,9 +62,23 @@ public class ApplicationConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 
+    /**
+     * Re-hashes a user's password after a successful login when the stored hash is older than the
+     * current settings (no "{id}" prefix, another algorithm, or a lower BCrypt cost).
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            User entity = (User) user;
+            entity.setPassword(newPassword);
+            return userRepository.save(entity);
+        };
+    }
+
     /**
      * Defines the AuthenticationManager bean.
      * This is the main component that processes an authentication request.
@@ -58,10 +90,21 @@ public class ApplicationConfig {
 
     /**
      * Defines the PasswordEncoder bean.
-     * We use BCrypt for strong, salted password hashing.
+     * We use BCrypt for strong, salted password hashing. New hashes are written as "{id}hash" with the
+     * configured algorithm and cost; legacy hashes without a prefix are still checked as BCrypt and
+     * upgraded on the next login. Hashing runs on a bounded pool (one thread per core by default), so
+     * a login burst is answered with 429 instead of saturating the CPU.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(passwordEncoding, Map.of(
+                "bcrypt", bcrypt,
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()
+        ));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, threads, hashQueue, hashMaxWaitMillis);
     }
 }
@@ -0,0 +1,132 @@
+package com.fu.coffeeshop_management.server.config;
+
+import com.fu.coffeeshop_management.server.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing on a fixed-size pool with a bounded queue.
+ * <p>
+ * BCrypt is deliberately CPU-expensive; without a limit, a burst of logins (or a credential-stuffing
+ * attempt) occupies every core and starves the rest of the API. Here at most {@code threads} hashes
+ * run at once and at most {@code queueCapacity} more wait; anything beyond that, or a caller that
+ * waits longer than {@code maxWait}, is rejected with {@link TooManyRequestsException} (HTTP 429).
+ * <p>
+ * Admission is counted with a semaphore of {@code threads + queueCapacity} permits, held from
+ * submission until the hash finishes, rather than left to the pool's queue: a bounded or hand-off
+ * queue also rejects work while a worker is merely between two tasks.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMillis) {
+        this.delegate = delegate;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(threads + Math.max(queueCapacity, 0));
+        AtomicInteger counter = new AtomicInteger();
+        // Unbounded here; the permits keep it at most queueCapacity long.
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only parses the hash prefix; cheap enough to run on the caller's thread.
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        if (!permits.tryAcquire()) {
+            throw reject();
+        }
+        // Whoever flips this first owns the permit: the task when it starts, or the caller when it
+        // gives up on a task that has not started (and so never will release it).
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return task.call();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw reject();
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future, claimed);
+            throw reject();
+        } catch (InterruptedException e) {
+            abandon(future, claimed);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void abandon(Future<?> future, AtomicBoolean claimed) {
+        if (claimed.compareAndSet(false, true)) {
+            permits.release();
+        }
+        future.cancel(true);
+    }
+
+    private TooManyRequestsException reject() {
+        rejected.increment();
+        log.warn("Password hashing saturated ({} active, {} queued); rejecting request",
+                executor.getActiveCount(), executor.getQueue().size());
+        return new TooManyRequestsException("Too many login attempts in progress, please retry shortly");
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
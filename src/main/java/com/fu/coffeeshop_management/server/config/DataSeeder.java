@@ -207,7 +207,7 @@ public class DataSeeder implements CommandLineRunner {
                 .status(STATUS_PENDING)
                 .createdAt(LocalDateTime.now().minusMinutes(30))
                 .updatedAt(LocalDateTime.now().minusMinutes(30))
-                .totalPrice(75000.00)
+                .totalPrice(new BigDecimal("75000.00"))
 //                .table(table101)
                 .staff(waiter)
                 .build();
@@ -229,7 +229,7 @@ public class DataSeeder implements CommandLineRunner {
                 .status(STATUS_PENDING)
                 .createdAt(LocalDateTime.now().minusHours(2))
                 .updatedAt(LocalDateTime.now().minusHours(2))
-                .totalPrice(70000.00)
+                .totalPrice(new BigDecimal("70000.00"))
 //                .table(table102)
                 .staff(waiter)
                 .build();
@@ -248,7 +248,7 @@ public class DataSeeder implements CommandLineRunner {
                 .status(STATUS_PENDING)
                 .createdAt(LocalDateTime.now().minusDays(1))
                 .updatedAt(LocalDateTime.now().minusDays(1))
-                .totalPrice(48000.00)
+                .totalPrice(new BigDecimal("48000.00"))
 //                .table(table101) // Another order on the same table
                 .staff(waiter)
                 .build();
@@ -1,6 +1,8 @@
 package com.fu.coffeeshop_management.server.config;
 
 import com.fu.coffeeshop_management.server.service.JwtService;
+import com.fu.coffeeshop_management.server.service.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,8 +10,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,11 +25,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserPrincipalCache userPrincipalCache) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Override
@@ -49,18 +49,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7); // "Bearer " is 7 chars
-        userEmail = jwtService.extractUsername(jwt);
-        logger.info("User email: " + userEmail);
+        // The token is parsed and verified once; the claims are reused for the checks below.
+        Claims claims = jwtService.verify(jwt).orElse(null);
+        if (claims == null) {
+            logger.info("Token is not valid");
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userEmail = claims.getSubject();
+        logger.debug("User email: " + userEmail);
         // Check if email is not null AND user is not already authenticated
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            // The user is only loaded from the database the first time this token is seen.
+            UserPrincipalCache.CachedPrincipal principal = userPrincipalCache.get(claims);
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, principal.user())) {
                 // If token is valid, update the SecurityContext
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal.user(),
                         null, // We don't need credentials
-                        userDetails.getAuthorities()
+                        principal.authorities()
                 );
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
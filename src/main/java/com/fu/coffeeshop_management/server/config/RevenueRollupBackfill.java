@@ -0,0 +1,32 @@
+package com.fu.coffeeshop_management.server.config;
+
+import com.fu.coffeeshop_management.server.service.RevenueRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the daily revenue rollup from existing bills once, the first time the application starts
+ * with the rollup table (a checkpoint records that it ran). Afterwards the rollup is kept up to date
+ * by payment confirmation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueRollupBackfill implements ApplicationRunner {
+
+    private final RevenueRollupService revenueRollupService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            revenueRollupService.backfillOnce();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance started at the same time and recorded the backfill first.
+            log.info("Revenue rollup backfill already recorded by another instance");
+        }
+    }
+}
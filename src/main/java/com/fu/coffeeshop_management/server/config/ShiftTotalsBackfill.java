@@ -0,0 +1,31 @@
+package com.fu.coffeeshop_management.server.config;
+
+import com.fu.coffeeshop_management.server.service.ShiftService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the running cash totals of shifts recorded before the totals were kept on the shift row.
+ * Runs once: a checkpoint records it, and later starts do not scan the shift table again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShiftTotalsBackfill implements ApplicationRunner {
+
+    private final ShiftService shiftService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            shiftService.backfillCashTotalsOnce();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance started at the same time and recorded the backfill first.
+            log.info("Shift cash totals backfill already recorded by another instance");
+        }
+    }
+}
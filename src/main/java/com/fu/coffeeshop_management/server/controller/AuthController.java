@@ -3,9 +3,12 @@ package com.fu.coffeeshop_management.server.controller;
 import com.fu.coffeeshop_management.server.dto.*;
 import com.fu.coffeeshop_management.server.entity.User;
 import com.fu.coffeeshop_management.server.service.AuthenticationService;
+import com.fu.coffeeshop_management.server.service.JwtService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -17,9 +20,11 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final JwtService jwtService;
 
-    public AuthController(AuthenticationService authenticationService) {
+    public AuthController(AuthenticationService authenticationService, JwtService jwtService) {
         this.authenticationService = authenticationService;
+        this.jwtService = jwtService;
     }
 
     /**
@@ -70,4 +75,19 @@ public class AuthController {
         authenticationService.resetPassword(request.getEmail());
         return ResponseEntity.ok(APIResponse.<String>builder().isSuccess(true).message("Password reset email sent successfully.").build());
     }
+
+    /**
+     * Token verification metrics: signature checks performed, verified-token cache hits and misses,
+     * failures and verification latency. Managers only.
+     */
+    @GetMapping("/jwt/metrics")
+    public ResponseEntity<JwtMetrics> jwtMetrics(@AuthenticationPrincipal User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (currentUser.getRole() == null || !"MANAGER".equals(currentUser.getRole().getName())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(jwtService.getMetrics());
+    }
 }
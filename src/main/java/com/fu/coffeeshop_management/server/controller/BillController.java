@@ -3,6 +3,7 @@ package com.fu.coffeeshop_management.server.controller;
 import com.fu.coffeeshop_management.server.dto.*;
 import com.fu.coffeeshop_management.server.service.BillService;
 import com.fu.coffeeshop_management.server.service.LoyaltyService;
+import com.fu.coffeeshop_management.server.util.LegacyListing;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -39,6 +40,12 @@ public class BillController {
         return ResponseEntity.ok(billDetails);
     }
 
+    /**
+     * Every matching bill in one list (at most {@link LegacyListing#MAX_ROWS}, otherwise 400).
+     *
+     * @deprecated use {@code GET /api/v1/bills/page}.
+     */
+    @Deprecated
     @GetMapping("/bills")
     public ResponseEntity<List<BillSummaryDTO>> getBillList(
             @RequestParam(required = false)
@@ -46,6 +53,18 @@ public class BillController {
             LocalDate date) {
 
         List<BillSummaryDTO> bills = billService.getBillList(date);
+        return LegacyListing.ok(bills, "/api/v1/bills/page");
+    }
+
+    @GetMapping("/bills/page")
+    public ResponseEntity<CursorPage<BillSummaryDTO>> getBillPage(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPage<BillSummaryDTO> bills = billService.getBillPage(date, cursor, size);
         return ResponseEntity.ok(bills);
     }
 
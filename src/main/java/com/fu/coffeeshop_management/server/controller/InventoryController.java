@@ -3,16 +3,24 @@ package com.fu.coffeeshop_management.server.controller;
 import com.fu.coffeeshop_management.server.dto.*;
 import com.fu.coffeeshop_management.server.entity.Stock;
 import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.exception.BadRequestException;
 import com.fu.coffeeshop_management.server.service.InventoryService;
+import com.fu.coffeeshop_management.server.service.RecipeService;
+import com.fu.coffeeshop_management.server.util.LegacyListing;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +37,7 @@ import java.util.UUID;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final RecipeService recipeService;
 
     /**
      * Add a new ingredient
@@ -104,6 +113,31 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Paginated list of active ingredients with stock, ordered by name
+     * GET /api/inventory/ingredients/page?page=0&size=20
+     */
+    @GetMapping("/ingredients/page")
+    public ResponseEntity<Page<IngredientResponse>> listIngredientPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("GET /api/inventory/ingredients/page?page={}&size={} - Listing ingredients", page, size);
+        return ResponseEntity.ok(inventoryService.listIngredients(page, size));
+    }
+
+    /**
+     * Paginated ingredient search by name, best match first
+     * GET /api/inventory/ingredients/search/page?name=xxx&page=0&size=20
+     */
+    @GetMapping("/ingredients/search/page")
+    public ResponseEntity<Page<IngredientResponse>> searchIngredientPage(
+            @RequestParam("name") String name,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("GET /api/inventory/ingredients/search/page?name={}&page={}&size={} - Searching ingredients", name, page, size);
+        return ResponseEntity.ok(inventoryService.searchIngredients(name, page, size));
+    }
+
     /**
      * Add incoming stock transaction
      * POST /api/inventory/stock/incoming
@@ -117,6 +151,19 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Receive a multi-line delivery in one call; all lines are applied or none
+     * POST /api/inventory/stock/deliveries
+     * Cashier and Manager can perform this
+     */
+    @PostMapping("/stock/deliveries")
+    public ResponseEntity<List<StockTransactionResponse>> addStockDelivery(@Valid @RequestBody StockDeliveryRequest request) {
+        log.info("POST /api/inventory/stock/deliveries - Receiving {} item(s)", request.getItems().size());
+        User currentUser = getCurrentUser();
+        List<StockTransactionResponse> response = inventoryService.addStockDelivery(request, currentUser);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     /**
      * Get stock level for a product
      * GET /api/inventory/stock/{productId}
@@ -129,13 +176,34 @@ public class InventoryController {
     }
 
     /**
-     * Get transaction history for a product
+     * Get every transaction of a product (at most {@link LegacyListing#MAX_ROWS}, otherwise 400)
      * GET /api/inventory/transactions/{productId}
+     *
+     * @deprecated use {@code GET /api/inventory/transactions/{productId}/page}.
      */
+    @Deprecated
     @GetMapping("/transactions/{productId}")
     public ResponseEntity<List<StockTransactionResponse>> getTransactionHistory(@PathVariable("productId") UUID productId) {
         log.info("GET /api/inventory/transactions/{} - Fetching transaction history", productId);
         List<StockTransactionResponse> response = inventoryService.getTransactionHistory(productId);
+        return LegacyListing.ok(response, "/api/inventory/transactions/" + productId + "/page");
+    }
+
+    /**
+     * One page of a product's transaction history, newest first
+     * GET /api/inventory/transactions/{productId}/page?type=OUTGOING&from=...&to=...&cursor=...&size=50
+     */
+    @GetMapping("/transactions/{productId}/page")
+    public ResponseEntity<CursorPage<StockTransactionResponse>> getTransactionHistoryPage(
+            @PathVariable("productId") UUID productId,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        log.info("GET /api/inventory/transactions/{}/page - type: {}, from: {}, to: {}", productId, type, from, to);
+        CursorPage<StockTransactionResponse> response =
+                inventoryService.getTransactionHistoryPage(productId, type, from, to, cursor, size);
         return ResponseEntity.ok(response);
     }
 
@@ -152,6 +220,43 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Stream low stock alerts (Server-Sent Events)
+     * GET /api/inventory/low-stock/stream
+     * Events: "snapshot" (current list), "low-stock" (item at or below reorder level), "restocked"
+     * Manager only
+     */
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStock() {
+        log.info("GET /api/inventory/low-stock/stream - Subscribing to low stock alerts");
+        User currentUser = getCurrentUser();
+        return inventoryService.subscribeLowStock(currentUser);
+    }
+
+    /**
+     * Get the recipe (ingredients consumed per unit sold) of a product
+     * GET /api/inventory/recipes/{productId}
+     */
+    @GetMapping("/recipes/{productId}")
+    public ResponseEntity<List<RecipeItemResponse>> getRecipe(@PathVariable("productId") UUID productId) {
+        log.info("GET /api/inventory/recipes/{} - Fetching recipe", productId);
+        return ResponseEntity.ok(recipeService.getRecipe(productId));
+    }
+
+    /**
+     * Replace the recipe of a product
+     * PUT /api/inventory/recipes/{productId}
+     * Manager only
+     */
+    @PutMapping("/recipes/{productId}")
+    public ResponseEntity<List<RecipeItemResponse>> replaceRecipe(
+            @PathVariable("productId") UUID productId,
+            @Valid @RequestBody RecipeRequest request) {
+        log.info("PUT /api/inventory/recipes/{} - Replacing recipe with {} item(s)", productId, request.getItems().size());
+        User currentUser = getCurrentUser();
+        return ResponseEntity.ok(recipeService.replaceRecipe(productId, request, currentUser));
+    }
+
     // === Private Helper Methods ===
 
     /**
@@ -174,6 +279,13 @@ public class InventoryController {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequestException(BadRequestException ex) {
+        log.error("BadRequestException: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<ErrorResponse> handleIllegalStateException(IllegalStateException ex) {
         log.error("IllegalStateException: {}", ex.getMessage());
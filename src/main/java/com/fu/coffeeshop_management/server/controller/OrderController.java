@@ -1,9 +1,12 @@
 package com.fu.coffeeshop_management.server.controller;
 
+import com.fu.coffeeshop_management.server.dto.CursorPage;
+import com.fu.coffeeshop_management.server.dto.OrderPatchRequestDTO;
 import com.fu.coffeeshop_management.server.dto.OrderRequestDTO;
 import com.fu.coffeeshop_management.server.dto.OrderResponseDTO;
 import com.fu.coffeeshop_management.server.entity.User;
 import com.fu.coffeeshop_management.server.service.OrderService;
+import com.fu.coffeeshop_management.server.util.LegacyListing;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -77,6 +80,33 @@ public class OrderController {
         }
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchOrder(@PathVariable String id, @RequestBody OrderPatchRequestDTO orderRequest, @AuthenticationPrincipal User currentUser) {
+        try {
+            OrderResponseDTO order = orderService.patchOrder(id, orderRequest, currentUser.getId());
+
+            Map<String, Object> response = Map.of(
+                    "isSuccess", true,
+                    "message", "Update order successfully.",
+                    "data", order
+            );
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            String errorMessage = e.getMessage();
+            if (errorMessage == null || errorMessage.isEmpty()) {
+                errorMessage = "Undefined error during update order. Type of error: " + e.getClass().getSimpleName();
+            } else {
+                errorMessage = "Error in updating order: " + errorMessage;
+            }
+            Map<String, Object> errorResponse = Map.of(
+                    "isSuccess", false,
+                    "message", errorMessage
+            );
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable String id) {
         OrderResponseDTO order = orderService.getOrderById(id);
@@ -84,6 +114,12 @@ public class OrderController {
     }
 
 
+    /**
+     * Every matching order in one list (at most {@link LegacyListing#MAX_ROWS}, otherwise 400).
+     *
+     * @deprecated use {@code GET /api/orders/page}.
+     */
+    @Deprecated
     @GetMapping
     public ResponseEntity<List<OrderResponseDTO>> getOrders(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant fromDate,
@@ -92,6 +128,19 @@ public class OrderController {
             @RequestParam(required = false) String tableId,
             @RequestParam(required = false) String staffId) {
         List<OrderResponseDTO> orders = orderService.getOrders(fromDate, toDate, status, tableId, staffId);
-        return ResponseEntity.ok(orders);
+        return LegacyListing.ok(orders, "/api/orders/page");
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<OrderResponseDTO>> getOrderPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant toDate,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String tableId,
+            @RequestParam(required = false) String staffId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<OrderResponseDTO> page = orderService.getOrderPage(fromDate, toDate, status, tableId, staffId, cursor, size);
+        return ResponseEntity.ok(page);
     }
 }
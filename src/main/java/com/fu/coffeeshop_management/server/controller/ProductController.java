@@ -70,4 +70,9 @@ public class ProductController {
         productService.updateStatusProduct(productId, status);
         return ResponseEntity.ok(APIResponse.builder().isSuccess(true).message("Status updated successfully").build());
     }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CatalogCacheStats> getCatalogCacheStats() {
+        return ResponseEntity.ok(productService.getCatalogCacheStats());
+    }
 }
@@ -0,0 +1,163 @@
+package com.fu.coffeeshop_management.server.controller;
+
+import com.fu.coffeeshop_management.server.dto.*;
+import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.service.PurchasingService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST Controller for Purchasing
+ * Handles suppliers, purchase orders and receiving deliveries into stock
+ *
+ * Base path: /api/purchasing
+ */
+@RestController
+@RequestMapping("/api/purchasing")
+@RequiredArgsConstructor
+@Slf4j
+public class PurchasingController {
+
+    private final PurchasingService purchasingService;
+
+    /**
+     * Add a supplier
+     * POST /api/purchasing/suppliers
+     * Manager only
+     */
+    @PostMapping("/suppliers")
+    public ResponseEntity<SupplierResponse> createSupplier(@Valid @RequestBody SupplierRequest request) {
+        log.info("POST /api/purchasing/suppliers - Adding supplier: {}", request.getName());
+        User currentUser = getCurrentUser();
+        SupplierResponse response = purchasingService.createSupplier(request, currentUser);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * List suppliers
+     * GET /api/purchasing/suppliers
+     */
+    @GetMapping("/suppliers")
+    public ResponseEntity<List<SupplierResponse>> listSuppliers() {
+        log.info("GET /api/purchasing/suppliers - Listing suppliers");
+        return ResponseEntity.ok(purchasingService.listSuppliers());
+    }
+
+    /**
+     * Create a purchase order
+     * POST /api/purchasing/orders
+     * Manager only
+     */
+    @PostMapping("/orders")
+    public ResponseEntity<PurchaseOrderResponse> createPurchaseOrder(@Valid @RequestBody PurchaseOrderRequest request) {
+        log.info("POST /api/purchasing/orders - Creating purchase order with {} line(s)", request.getItems().size());
+        User currentUser = getCurrentUser();
+        PurchaseOrderResponse response = purchasingService.createPurchaseOrder(request, currentUser);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Create a purchase order restocking every low-stock ingredient
+     * POST /api/purchasing/orders/from-low-stock?supplierId=...
+     * Manager only
+     */
+    @PostMapping("/orders/from-low-stock")
+    public ResponseEntity<PurchaseOrderResponse> createPurchaseOrderFromLowStock(
+            @RequestParam("supplierId") UUID supplierId) {
+        log.info("POST /api/purchasing/orders/from-low-stock - Supplier: {}", supplierId);
+        User currentUser = getCurrentUser();
+        PurchaseOrderResponse response = purchasingService.createPurchaseOrderFromLowStock(supplierId, currentUser);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * List purchase orders, newest first
+     * GET /api/purchasing/orders?status=PENDING&page=0&size=20
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<Page<PurchaseOrderResponse>> listPurchaseOrders(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        log.info("GET /api/purchasing/orders - status: {}, page: {}, size: {}", status, page, size);
+        return ResponseEntity.ok(purchasingService.listPurchaseOrders(status, page, size));
+    }
+
+    /**
+     * Get a purchase order with its lines
+     * GET /api/purchasing/orders/{id}
+     */
+    @GetMapping("/orders/{id}")
+    public ResponseEntity<PurchaseOrderResponse> getPurchaseOrder(@PathVariable("id") UUID purchaseOrderId) {
+        log.info("GET /api/purchasing/orders/{} - Fetching purchase order", purchaseOrderId);
+        return ResponseEntity.ok(purchasingService.getPurchaseOrder(purchaseOrderId));
+    }
+
+    /**
+     * Receive a purchase order into stock; lines not listed are received in full
+     * POST /api/purchasing/orders/{id}/receive
+     * Cashier and Manager
+     */
+    @PostMapping("/orders/{id}/receive")
+    public ResponseEntity<PurchaseOrderResponse> receivePurchaseOrder(
+            @PathVariable("id") UUID purchaseOrderId,
+            @Valid @RequestBody(required = false) ReceivePurchaseOrderRequest request) {
+        log.info("POST /api/purchasing/orders/{}/receive - Receiving purchase order", purchaseOrderId);
+        User currentUser = getCurrentUser();
+        return ResponseEntity.ok(purchasingService.receivePurchaseOrder(purchaseOrderId, request, currentUser));
+    }
+
+    /**
+     * Cancel a pending purchase order
+     * POST /api/purchasing/orders/{id}/cancel
+     * Manager only
+     */
+    @PostMapping("/orders/{id}/cancel")
+    public ResponseEntity<PurchaseOrderResponse> cancelPurchaseOrder(@PathVariable("id") UUID purchaseOrderId) {
+        log.info("POST /api/purchasing/orders/{}/cancel - Cancelling purchase order", purchaseOrderId);
+        User currentUser = getCurrentUser();
+        return ResponseEntity.ok(purchasingService.cancelPurchaseOrder(purchaseOrderId, currentUser));
+    }
+
+    // === Private Helper Methods ===
+
+    /**
+     * Get the currently authenticated user from the security context
+     */
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            return (User) authentication.getPrincipal();
+        }
+        throw new IllegalStateException("No authenticated user found");
+    }
+
+    // === Exception Handlers ===
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        log.error("IllegalArgumentException: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalStateException(IllegalStateException ex) {
+        log.error("IllegalStateException: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(HttpStatus.FORBIDDEN.value(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+    }
+
+    // Error response DTO
+    private record ErrorResponse(int status, String message) {}
+}
@@ -1,18 +1,27 @@
 package com.fu.coffeeshop_management.server.controller;
 
+import com.fu.coffeeshop_management.server.dto.APIResponse;
+import com.fu.coffeeshop_management.server.dto.InventoryAnalyticsReportDTO;
 import com.fu.coffeeshop_management.server.dto.ItemReportDTO;
 import com.fu.coffeeshop_management.server.dto.PeriodItemReportDTO;
 import com.fu.coffeeshop_management.server.dto.RevenueReportDTO;
 import com.fu.coffeeshop_management.server.dto.StockReportDTO;
+import com.fu.coffeeshop_management.server.entity.User;
 import com.fu.coffeeshop_management.server.service.ReportService;
+import com.fu.coffeeshop_management.server.service.RevenueRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,6 +32,9 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
     @GetMapping("/revenue")
     public ResponseEntity<RevenueReportDTO> getRevenueReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
@@ -33,6 +45,24 @@ public class ReportController {
         return ResponseEntity.ok(report);
     }
 
+    /**
+     * Recomputes the daily revenue rollup from the bill table for the given days (inclusive).
+     * Without bounds the whole history is rebuilt. Managers only.
+     */
+    @PostMapping("/revenue/rollup/rebuild")
+    public ResponseEntity<APIResponse<Integer>> rebuildRevenueRollup(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        int days = revenueRollupService.rebuild(currentUser, from, to);
+        return ResponseEntity.ok(APIResponse.<Integer>builder()
+                .isSuccess(true)
+                .message("Revenue rollup rebuilt")
+                .data(days)
+                .build());
+    }
+
     @GetMapping("/items")
     public ResponseEntity<List<PeriodItemReportDTO>> getItemReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
@@ -48,4 +78,22 @@ public class ReportController {
         StockReportDTO report = reportService.getStockReport();
         return ResponseEntity.ok(report);
     }
-}
\ No newline at end of file
+
+    /**
+     * Stock valuation (weighted average cost) and 7/30-day consumption velocity per ingredient.
+     * Figures are as of the last scheduled refresh, so recent ledger transactions may not be included yet.
+     */
+    @GetMapping("/inventory/analytics")
+    public ResponseEntity<InventoryAnalyticsReportDTO> getInventoryAnalytics() {
+        InventoryAnalyticsReportDTO report = reportService.getInventoryAnalytics();
+        return ResponseEntity.ok(report);
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<APIResponse<Void>> handleIllegalStateException(IllegalStateException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(APIResponse.<Void>builder()
+                .isSuccess(false)
+                .message(ex.getMessage())
+                .build());
+    }
+}
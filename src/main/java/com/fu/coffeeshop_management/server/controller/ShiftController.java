@@ -6,11 +6,13 @@ import com.fu.coffeeshop_management.server.service.ShiftService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -130,23 +132,46 @@ public class ShiftController {
 
     /**
      * Get all shifts with filters (Manager only)
-     * Supports filtering by status, user, and date range
-     * Includes pagination
+     * Supports filtering by status, user, date range and minimum cash discrepancy
+     * Includes pagination; with slice=true the total count is skipped
      */
     @GetMapping
-    public ResponseEntity<Page<ShiftResponse>> getAllShifts(
+    public ResponseEntity<Slice<ShiftResponse>> getAllShifts(
             @RequestParam(required = false, defaultValue = "all") String status,
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) BigDecimal minDiscrepancy,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean slice,
             Authentication authentication) {
         User currentUser = (User) authentication.getPrincipal();
-        Page<ShiftResponse> shifts = shiftService.getAllShifts(status, userId, startDate, endDate, page, size, currentUser);
+        Slice<ShiftResponse> shifts = slice
+                ? shiftService.getShiftSlice(status, userId, startDate, endDate, minDiscrepancy, page, size, currentUser)
+                : shiftService.getAllShifts(status, userId, startDate, endDate, minDiscrepancy, page, size, currentUser);
         return ResponseEntity.ok(shifts);
     }
 
+    /**
+     * Keyset-paginated shift history (Manager only), newest first
+     * Pass nextCursor from the previous response to get the next page
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ShiftResponse>> getShiftPage(
+            @RequestParam(required = false, defaultValue = "all") String status,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) BigDecimal minDiscrepancy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        User currentUser = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(shiftService.getShiftPage(status, userId, startDate, endDate, minDiscrepancy,
+                cursor, size, currentUser));
+    }
+
     /**
      * Get current user's shift history
      * Cashier can view their own shifts
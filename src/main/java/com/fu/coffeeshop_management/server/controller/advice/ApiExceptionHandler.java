@@ -4,10 +4,12 @@ package com.fu.coffeeshop_management.server.controller.advice;
 import com.fu.coffeeshop_management.server.exception.BadRequestException;
 import com.fu.coffeeshop_management.server.exception.ConflictException;
 import com.fu.coffeeshop_management.server.exception.NotFoundException;
+import com.fu.coffeeshop_management.server.exception.TooManyRequestsException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
@@ -45,6 +47,15 @@ public class ApiExceptionHandler {
         );
     }
 
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLock(ObjectOptimisticLockingFailureException ex,
+                                                         HttpServletRequest req) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                new ApiError(Instant.now(), 409, "Conflict",
+                        "The record was changed by another request, please reload and retry", req.getRequestURI())
+        );
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiError> handleNotFound(NotFoundException ex,
                                                    HttpServletRequest req) {
@@ -53,6 +64,14 @@ public class ApiExceptionHandler {
         );
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex,
+                                                          HttpServletRequest req) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiError(Instant.now(), 429, "Too Many Requests", ex.getMessage(), req.getRequestURI()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleAny(Exception ex, HttpServletRequest req) {
         log.error("Unhandled Internal Server Error occurred at path: {}", req.getRequestURI(), ex);
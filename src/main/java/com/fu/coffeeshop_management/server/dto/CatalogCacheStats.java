@@ -0,0 +1,22 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogCacheStats {
+    private long hits;
+    private long misses;
+    private long rebuilds;
+    private long invalidations;
+    private double hitRatio;
+    private int size;
+    private LocalDateTime builtAt;
+}
@@ -0,0 +1,9 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.util.UUID;
+
+/**
+ * Quantity of an ingredient consumed over the short and the long rolling window.
+ */
+public record IngredientConsumption(UUID productId, long shortWindow, long longWindow) {
+}
@@ -0,0 +1,36 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAnalyticsItemDTO {
+    private UUID productId;
+    private String itemName;
+    private String unit;
+    private Integer stockQuantity;
+    private Integer reorderLevel;
+
+    // Weighted average cost per unit and the stock valued at it; null until a costed delivery is received
+    private BigDecimal averageCost;
+    private BigDecimal stockValue;
+
+    private Long consumedLast7Days;
+    private Long consumedLast30Days;
+    private BigDecimal dailyVelocity7Days;
+    private BigDecimal dailyVelocity30Days;
+
+    // Days the current stock lasts at the 7-day velocity (30-day when nothing was used in 7 days); null when unused
+    private BigDecimal daysOfCover;
+
+    private LocalDateTime lastTransactionTime;
+}
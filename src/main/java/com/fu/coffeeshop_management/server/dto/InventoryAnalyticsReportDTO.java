@@ -0,0 +1,20 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAnalyticsReportDTO {
+    // Transactions committed by this time are included; null until the ledger has first been folded in
+    private LocalDateTime asOf;
+    private BigDecimal totalStockValue;
+
+    private List<InventoryAnalyticsItemDTO> details;
+}
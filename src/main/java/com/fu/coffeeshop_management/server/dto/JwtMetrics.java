@@ -0,0 +1,21 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class JwtMetrics {
+    private long verifications;
+    private long cacheHits;
+    private long cacheMisses;
+    private long failures;
+    private double hitRatio;
+    private int cacheSize;
+    private double avgVerifyMicros;
+    private double maxVerifyMicros;
+}
@@ -0,0 +1,12 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One inventory transaction as plain columns, for folding the ledger without loading entities.
+ */
+public record LedgerEntry(UUID id, UUID productId, String transactionType, int quantity, BigDecimal unitCost,
+                          LocalDateTime transactionTime) {
+}
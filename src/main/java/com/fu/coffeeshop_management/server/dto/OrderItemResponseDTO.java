@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -13,5 +15,5 @@ public class OrderItemResponseDTO {
     private String productId;
     private String productName;
     private int quantity;
-    private double price;
+    private BigDecimal price;
 }
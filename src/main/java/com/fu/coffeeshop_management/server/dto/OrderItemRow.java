@@ -0,0 +1,10 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Order line selected for the paginated order listing.
+ */
+public record OrderItemRow(UUID orderId, UUID productId, String productName, int quantity, BigDecimal price) {
+}
@@ -0,0 +1,20 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Partial order update. Fields left null are not changed; each item sets the
+ * quantity of one product on the order (0 removes that product).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPatchRequestDTO {
+    private List<OrderItemRequestDTO> items;
+    private String note;
+    private String status;
+}
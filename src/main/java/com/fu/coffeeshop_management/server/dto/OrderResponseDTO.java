@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
@@ -16,7 +17,7 @@ import java.util.List;
 public class OrderResponseDTO {
     private String id;
     private Instant orderDate;
-    private double totalAmount;
+    private BigDecimal totalAmount;
     private String status;
     private String staffName;
     private String note;
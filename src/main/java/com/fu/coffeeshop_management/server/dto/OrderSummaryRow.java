@@ -0,0 +1,12 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Order header columns selected for the paginated order listing.
+ */
+public record OrderSummaryRow(UUID id, LocalDateTime createdAt, BigDecimal totalPrice, String status, String note,
+                              String staffName) {
+}
@@ -0,0 +1,9 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.util.UUID;
+
+/**
+ * Table assigned to an order, selected for the paginated order listing.
+ */
+public record OrderTableRow(UUID orderId, UUID tableId, String tableName) {
+}
@@ -0,0 +1,11 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Immutable view of a product as held by the in-memory catalog cache.
+ */
+public record ProductCatalogEntry(UUID id, String name, String description, BigDecimal price, String imageLink,
+                                  String status, UUID categoryId, String categoryName) {
+}
@@ -0,0 +1,33 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One product line of a purchase order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderItemRequest {
+
+    @NotNull(message = "Product ID is required")
+    private UUID productId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = 100000, message = "Quantity cannot exceed 100000")
+    private Integer quantity;
+
+    // Purchase cost per unit; defaults to the product price when omitted
+    @DecimalMin(value = "0.00", message = "Cost price cannot be negative")
+    @Digits(integer = 8, fraction = 2, message = "Cost price must have at most 8 integer and 2 decimal digits")
+    private BigDecimal costPrice;
+}
@@ -0,0 +1,26 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO for returning one purchase order line
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderItemResponse {
+
+    private UUID productId;
+    private String productName;
+    private Integer quantity;
+    private Integer receivedQuantity;
+    private BigDecimal costPrice;
+    private BigDecimal lineTotal;
+}
@@ -0,0 +1,30 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for creating a purchase order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderRequest {
+
+    @NotNull(message = "Supplier ID is required")
+    private UUID supplierId;
+
+    @NotEmpty(message = "Purchase order must have at least one item")
+    @Size(max = 500, message = "Purchase order cannot have more than 500 items")
+    private List<@Valid PurchaseOrderItemRequest> items;
+}
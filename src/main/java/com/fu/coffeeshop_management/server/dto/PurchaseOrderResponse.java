@@ -0,0 +1,31 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for returning a purchase order; items are only filled in on the detail views
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderResponse {
+
+    private UUID id;
+    private UUID supplierId;
+    private String supplierName;
+    private LocalDateTime orderDate;
+    private String status;
+    private BigDecimal totalAmount;
+    private String createdBy;
+    private LocalDateTime receivedAt;
+    private List<PurchaseOrderItemResponse> items;
+}
@@ -0,0 +1,33 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * What was actually delivered for one purchase order line, when it differs from what was ordered
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiveItemRequest {
+
+    @NotNull(message = "Product ID is required")
+    private UUID productId;
+
+    @NotNull(message = "Received quantity is required")
+    @Min(value = 0, message = "Received quantity cannot be negative")
+    @Max(value = 100000, message = "Received quantity cannot exceed 100000")
+    private Integer receivedQuantity;
+
+    // Actual cost per unit on the invoice; keeps the ordered cost when omitted
+    @DecimalMin(value = "0.00", message = "Cost price cannot be negative")
+    @Digits(integer = 8, fraction = 2, message = "Cost price must have at most 8 integer and 2 decimal digits")
+    private BigDecimal costPrice;
+}
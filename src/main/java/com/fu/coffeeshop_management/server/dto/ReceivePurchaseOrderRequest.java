@@ -0,0 +1,23 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for receiving a purchase order; lines not listed are received as ordered
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceivePurchaseOrderRequest {
+
+    @Size(max = 500, message = "Cannot list more than 500 items")
+    private List<@Valid ReceiveItemRequest> items;
+}
@@ -0,0 +1,24 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for returning one ingredient line of a product recipe
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeItemResponse {
+
+    private UUID ingredientId;
+    private String ingredientName;
+    private Integer quantity;
+    private String unit;
+    private Integer quantityInStock;
+}
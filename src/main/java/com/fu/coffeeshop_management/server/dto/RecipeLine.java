@@ -0,0 +1,9 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.util.UUID;
+
+/**
+ * One recipe line as IDs only: one unit of the product consumes {@code quantity} of the ingredient.
+ */
+public record RecipeLine(UUID productId, UUID ingredientId, int quantity) {
+}
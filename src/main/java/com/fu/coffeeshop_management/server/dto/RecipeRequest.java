@@ -0,0 +1,25 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for replacing the recipe of a product; an empty list removes the recipe
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeRequest {
+
+    @NotNull(message = "Items are required")
+    @Size(max = 100, message = "A recipe cannot have more than 100 ingredients")
+    private List<@Valid RecipeItemRequest> items;
+}
@@ -0,0 +1,20 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Opening cash plus per-type cash transaction totals and counts of one shift, aggregated in a single
+ * query.
+ */
+public record ShiftCashTotalsRow(UUID shiftId, BigDecimal openingCash,
+                                 BigDecimal totalCashIn, BigDecimal totalCashOut, BigDecimal totalRefunds,
+                                 long cashInCount, long cashOutCount, long refundCount, long transactionCount) {
+
+    /**
+     * Opening cash + cash in - cash out - refunds.
+     */
+    public BigDecimal expectedBalance() {
+        return openingCash.add(totalCashIn).subtract(totalCashOut).subtract(totalRefunds);
+    }
+}
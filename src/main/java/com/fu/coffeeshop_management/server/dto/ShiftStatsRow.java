@@ -0,0 +1,13 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Shift columns needed by the shift statistics, including the running cash totals kept on the shift.
+ */
+public record ShiftStatsRow(String status, LocalDateTime startTime, LocalDateTime endTime,
+                            BigDecimal openingCash, BigDecimal closingCash,
+                            BigDecimal totalCashIn, BigDecimal totalCashOut, BigDecimal totalRefunds,
+                            int transactionCount) {
+}
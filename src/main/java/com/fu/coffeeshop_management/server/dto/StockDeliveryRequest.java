@@ -0,0 +1,29 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for receiving a multi-line delivery in one call; all lines are applied or none.
+ * The notes are stored on each INCOMING transaction of the delivery.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDeliveryRequest {
+
+    @NotEmpty(message = "Delivery must have at least one item")
+    @Size(max = 500, message = "Delivery cannot have more than 500 items")
+    private List<@Valid StockDeliveryItem> items;
+
+    @Size(max = 500, message = "Notes must not exceed 500 characters")
+    private String notes;
+}
@@ -0,0 +1,20 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One line of a stock movement: INCOMING and OUTGOING move the stock by {@code quantity},
+ * ADJUSTMENT sets it to {@code quantity}. {@code unitCost} is the purchase cost per unit of an
+ * INCOMING line, when known; {@code note} is free text stored on the transaction (e.g. delivery notes).
+ */
+public record StockMovement(UUID productId, String transactionType, int quantity, BigDecimal unitCost, String note) {
+
+    public StockMovement(UUID productId, String transactionType, int quantity) {
+        this(productId, transactionType, quantity, null, null);
+    }
+
+    public StockMovement(UUID productId, String transactionType, int quantity, BigDecimal unitCost) {
+        this(productId, transactionType, quantity, unitCost, null);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -22,7 +23,17 @@ public class StockTransactionResponse {
     private String productName;
     private Integer quantity;
     private String transactionType;
+    private BigDecimal unitCost;
+    private String note;
     private LocalDateTime transactionTime;
     private String userName;
     private Integer stockLevelAfter;
+
+    /**
+     * Projection constructor for history rows, which carry no stock level.
+     */
+    public StockTransactionResponse(UUID id, UUID productId, String productName, Integer quantity, String transactionType,
+                                    BigDecimal unitCost, String note, LocalDateTime transactionTime, String userName) {
+        this(id, productId, productName, quantity, transactionType, unitCost, note, transactionTime, userName, null);
+    }
 }
@@ -0,0 +1,31 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for creating a supplier
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierRequest {
+
+    @NotBlank(message = "Supplier name is required")
+    @Size(max = 255, message = "Name must not exceed 255 characters")
+    private String name;
+
+    @Size(max = 255, message = "Contact person must not exceed 255 characters")
+    private String contactPerson;
+
+    @Size(max = 20, message = "Phone must not exceed 20 characters")
+    private String phone;
+
+    @Size(max = 255, message = "Address must not exceed 255 characters")
+    private String address;
+}
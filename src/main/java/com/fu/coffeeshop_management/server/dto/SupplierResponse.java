@@ -0,0 +1,24 @@
+package com.fu.coffeeshop_management.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for returning supplier information
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierResponse {
+
+    private UUID id;
+    private String name;
+    private String contactPerson;
+    private String phone;
+    private String address;
+}
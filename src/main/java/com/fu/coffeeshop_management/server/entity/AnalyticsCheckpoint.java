@@ -0,0 +1,37 @@
+package com.fu.coffeeshop_management.server.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representation of the 'analytics_checkpoint' table.
+ * How far an incremental analytics job has read its source: the time its last complete pass
+ * started, with every row committed by then folded in. For a one-off job such as a backfill, the
+ * row only records that (and when) it has run.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "analytics_checkpoint")
+public class AnalyticsCheckpoint {
+    @Id
+    @Column(name = "name", nullable = false, updatable = false, length = 64)
+    private String name;
+
+    @Column(name = "processed_up_to", nullable = false)
+    private LocalDateTime processedUpTo;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+}
@@ -0,0 +1,44 @@
+package com.fu.coffeeshop_management.server.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Entity representation of the 'daily_ingredient_usage' table.
+ * Quantity of a product consumed (OUTGOING) and received (INCOMING) per day, folded in from the
+ * inventory ledger; the rolling consumption windows of the inventory analytics report sum these rows.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_ingredient_usage",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_ingredient_usage_product_date",
+                columnNames = {"product_id", "usage_date"}))
+public class DailyIngredientUsage {
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Column(name = "usage_date", nullable = false, updatable = false)
+    private LocalDate usageDate;
+
+    @Column(name = "consumed_quantity", nullable = false)
+    private long consumedQuantity;
+
+    @Column(name = "received_quantity", nullable = false)
+    private long receivedQuantity;
+}
@@ -0,0 +1,34 @@
+package com.fu.coffeeshop_management.server.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representation of the 'daily_revenue_rollup' table.
+ * One row per day with the revenue and number of paid bills issued that day; maintained
+ * incrementally on payment confirmation and rebuilt from the bill table on demand.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_revenue_rollup")
+public class DailyRevenueRollup {
+    @Id
+    @Column(name = "revenue_date", nullable = false, updatable = false)
+    private LocalDate revenueDate;
+
+    @Column(name = "total_revenue", nullable = false, columnDefinition = "DECIMAL(14,2)")
+    private BigDecimal totalRevenue;
+
+    @Column(name = "bill_count", nullable = false)
+    private Long billCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.fu.coffeeshop_management.server.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representation of the 'ingredient_analytics' table.
+ * Running state of one product's inventory ledger: the quantity and weighted average cost after the
+ * last transaction folded in, and the time and id of that transaction (the product's checkpoint).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ingredient_analytics")
+public class IngredientAnalytics {
+    @Id
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    // Quantity on hand according to the ledger, used to weight incoming costs
+    @Column(name = "on_hand", nullable = false)
+    private int onHand;
+
+    // Weighted average cost per unit; null until a costed delivery has been received
+    @Column(name = "average_cost", columnDefinition = "DECIMAL(12,4)")
+    private BigDecimal averageCost;
+
+    @Column(name = "last_transaction_time", nullable = false)
+    private LocalDateTime lastTransactionTime;
+
+    // Breaks ties between transactions recorded at the same time; null on rows folded before it was kept
+    @Column(name = "last_transaction_id")
+    private UUID lastTransactionId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Also tells Spring Data a new row apart from a detached one, so saving a new row is a plain insert
+    @Version
+    @Column(name = "version")
+    private Long version;
+}
@@ -5,13 +5,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.GenericGenerator;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "inventory_transaction")
+@Table(name = "inventory_transaction",
+        indexes = @Index(name = "idx_inventory_transaction_product_time", columnList = "product_id, transaction_time"))
 public class InventoryTransaction {
     @Id
     @GeneratedValue(generator = "UUID")
@@ -29,6 +31,13 @@ public class InventoryTransaction {
     @Column(name = "transaction_type", nullable = false)
     private String transactionType;
 
+    // Purchase cost per unit of an INCOMING movement, when known
+    @Column(name = "unit_cost", columnDefinition = "DECIMAL(10,2)")
+    private BigDecimal unitCost;
+
+    @Column(name = "note", length = 500)
+    private String note;
+
     @Column(name = "transaction_time", nullable = false)
     private LocalDateTime transactionTime;
 
@@ -14,6 +14,9 @@ import java.util.UUID;
 /**
  * Entity representation of the 'order' table.
  * Based on the SDD 'order' table definition.
+ * <p>
+ * All associations are lazy; callers that need the lines or tables load them through one of the
+ * named entity graphs below (see {@code OrderRepository}).
  */
 @Getter
 @Setter
@@ -24,7 +27,43 @@ import java.util.UUID;
 @Entity
 @Table(name = "`order`")
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+@NamedEntityGraph(name = Order.GRAPH_SCREEN,
+        attributeNodes = {
+                @NamedAttributeNode("staff"),
+                @NamedAttributeNode("bill"),
+                @NamedAttributeNode(value = "tableOrders", subgraph = "tables"),
+                @NamedAttributeNode(value = "orderDetails", subgraph = "lines")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "tables", attributeNodes = @NamedAttributeNode("tableInfo")),
+                @NamedSubgraph(name = "lines", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+                // Product.stock is the inverse side of a one-to-one and is always resolved on load,
+                // so join it here instead of paying one select per product.
+                @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("stock"))
+        })
+@NamedEntityGraph(name = Order.GRAPH_BILLING,
+        attributeNodes = {
+                @NamedAttributeNode("bill"),
+                @NamedAttributeNode(value = "tableOrders", subgraph = "tables"),
+                @NamedAttributeNode("orderDetails")
+        },
+        subgraphs = @NamedSubgraph(name = "tables", attributeNodes = @NamedAttributeNode("tableInfo")))
+@NamedEntityGraph(name = Order.GRAPH_BILL_DETAIL,
+        attributeNodes = {
+                @NamedAttributeNode("staff"),
+                @NamedAttributeNode("bill"),
+                @NamedAttributeNode(value = "tableOrders", subgraph = "tables"),
+                @NamedAttributeNode("orderDetails")
+        },
+        subgraphs = @NamedSubgraph(name = "tables", attributeNodes = @NamedAttributeNode("tableInfo")))
 public class Order {
+    /** Order screen: staff, tables and lines with their products. */
+    public static final String GRAPH_SCREEN = "Order.screen";
+    /** Bill calculation/generation: lines (price and quantity only) and the tables to release. */
+    public static final String GRAPH_BILLING = "Order.billing";
+    /** Bill detail page: cashier, first table name and lines (product names come from the catalog cache). */
+    public static final String GRAPH_BILL_DETAIL = "Order.billDetail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "id", nullable = false, updatable = false)
@@ -42,7 +81,7 @@ public class Order {
     private LocalDateTime updatedAt = LocalDateTime.now();
 
     @Column(name = "total_price", nullable = false, columnDefinition = "DECIMAL(10,2)")
-    private Double totalPrice;
+    private BigDecimal totalPrice;
 
     @Column(name = "note", columnDefinition = "TEXT")
     private String note;
@@ -55,7 +94,7 @@ public class Order {
     @JoinColumn(name = "staff_id", nullable = false)
     private User staff;
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Builder.Default
     private Set<OrderDetail> orderDetails = new HashSet<>();
 
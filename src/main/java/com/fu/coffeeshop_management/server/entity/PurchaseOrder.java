@@ -32,5 +32,13 @@ public class PurchaseOrder {
 
     @Column(name = "status", nullable = false)
     private String status;
+
+    // Manager who placed the order; null for orders created before this was tracked
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by")
+    private User createdBy;
+
+    @Column(name = "received_at")
+    private LocalDateTime receivedAt;
 }
 
@@ -32,5 +32,9 @@ public class PurchaseOrderDetail {
 
     @Column(name = "cost_price", columnDefinition = "DECIMAL(10,2)")
     private BigDecimal costPrice;
+
+    // Quantity actually delivered; null until the order is received
+    @Column(name = "received_quantity")
+    private Integer receivedQuantity;
 }
 
@@ -0,0 +1,44 @@
+package com.fu.coffeeshop_management.server.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.util.UUID;
+
+/**
+ * Entity representation of the 'recipe_item' table.
+ * One line of a product's recipe: how much of an ingredient (in the ingredient's stock unit)
+ * one unit of the product consumes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "recipe_item",
+        uniqueConstraints = @UniqueConstraint(name = "uk_recipe_item_product_ingredient",
+                columnNames = {"product_id", "ingredient_id"}))
+public class RecipeItem {
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    // The sellable product this line belongs to
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    // The ingredient consumed
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ingredient_id", nullable = false)
+    private Product ingredient;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+}
@@ -46,5 +46,33 @@ public class Shift {
 
     @Column(name = "status", nullable = false)
     private String status;
+
+    // Running totals of the shift's cash transactions, updated under a row lock whenever one is recorded.
+    @Builder.Default
+    @Column(name = "total_cash_in", nullable = false, columnDefinition = "DECIMAL(12,2) NOT NULL DEFAULT 0")
+    private BigDecimal totalCashIn = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "total_cash_out", nullable = false, columnDefinition = "DECIMAL(12,2) NOT NULL DEFAULT 0")
+    private BigDecimal totalCashOut = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "total_refunds", nullable = false, columnDefinition = "DECIMAL(12,2) NOT NULL DEFAULT 0")
+    private BigDecimal totalRefunds = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "transaction_count", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int transactionCount = 0;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long version;
+
+    /**
+     * Opening cash + cash in - cash out - refunds.
+     */
+    public BigDecimal expectedCash() {
+        return openingCash.add(totalCashIn).subtract(totalCashOut).subtract(totalRefunds);
+    }
 }
 
@@ -12,6 +12,8 @@ import java.util.UUID;
  * Entity representation of the 'stock' table.
  * Based on the SDD (table #19).
  * This holds the inventory level for a product.
+ * Quantities are changed by StockLedger on rows locked with SELECT ... FOR UPDATE; any other
+ * writer must lock the row the same way before saving it, or it may write back a stale quantity.
  */
 @Data
 @Builder
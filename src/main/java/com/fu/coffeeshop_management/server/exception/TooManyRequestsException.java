@@ -0,0 +1,5 @@
+package com.fu.coffeeshop_management.server.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String m) { super(m); }
+}
@@ -0,0 +1,9 @@
+package com.fu.coffeeshop_management.server.repository;
+
+import com.fu.coffeeshop_management.server.entity.AnalyticsCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AnalyticsCheckpointRepository extends JpaRepository<AnalyticsCheckpoint, String> {
+}
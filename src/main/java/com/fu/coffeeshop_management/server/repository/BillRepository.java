@@ -1,7 +1,12 @@
 package com.fu.coffeeshop_management.server.repository;
 
+import com.fu.coffeeshop_management.server.dto.BillSummaryDTO;
 import com.fu.coffeeshop_management.server.entity.Bill;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,62 +21,46 @@ public interface BillRepository extends JpaRepository<Bill, UUID> {
     boolean existsByOrderId(UUID orderId);
     Optional<Bill> findByOrderId(UUID orderId);
 
-    @Query("SELECT b FROM Bill b " +
-            "JOIN FETCH b.order o " +
-            "JOIN FETCH o.staff " +
-            "WHERE b.issuedTime BETWEEN :start AND :end " +
-            "ORDER BY b.issuedTime DESC")
-    List<Bill> findBillsByDateRangeFetch(
-            @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end);
-
-    @Query(value = "SELECT " +
-            "CAST(b.issued_time AS DATE) AS reportDate, " +
-            "SUM(b.final_amount) AS totalRevenue, " +
-            "COUNT(b.id) AS billCount " +
-            "FROM bill b " +
-            "WHERE b.payment_status = 'PAID' " +
-            "AND b.issued_time BETWEEN :startDate AND :endDate " +
-            "GROUP BY reportDate " +
-            "ORDER BY reportDate ASC", nativeQuery = true)
-    List<Object[]> getRevenueReportByDayFromBills(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
+    @EntityGraph(attributePaths = {"customer", "voucher"})
+    Optional<Bill> findDetailById(UUID id);
 
-    @Query(value = "SELECT " +
-            "YEAR(b.issued_time) as reportYear, " +
-            "MONTH(b.issued_time) as reportMonth, " +
-            "SUM(b.final_amount) AS totalRevenue, " +
-            "COUNT(b.id) AS billCount " +
-            "FROM bill b " +
-            "WHERE b.payment_status = 'PAID' " +
-            "AND b.issued_time BETWEEN :startDate AND :endDate " +
-            "GROUP BY reportYear, reportMonth " +
-            "ORDER BY reportYear ASC, reportMonth ASC", nativeQuery = true)
-    List<Object[]> getRevenueReportByMonthFromBills(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
+    /**
+     * Locks the bill row (SELECT ... FOR UPDATE) so only one payment confirmation can see it pending.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Bill b where b.id = :id")
+    Optional<Bill> findForPaymentById(@Param("id") UUID id);
 
-    @Query(value = "SELECT " +
-            "YEARWEEK(b.issued_time, 1) as reportYearWeek, " +
-            "SUM(b.final_amount) AS totalRevenue, " +
-            "COUNT(b.id) AS billCount " +
-            "FROM bill b " +
-            "WHERE b.payment_status = 'PAID' " +
-            "AND b.issued_time BETWEEN :startDate AND :endDate " +
-            "GROUP BY reportYearWeek " +
-            "ORDER BY reportYearWeek ASC", nativeQuery = true)
-    List<Object[]> getRevenueReportByWeekFromBills(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
+    @Query("select min(b.issuedTime) from Bill b")
+    LocalDateTime findFirstIssuedTime();
 
-
-    @Query("select b from Bill b " +
-            "left join fetch b.order o " +
-            "left join fetch o.staff u " +
-            "order by b.issuedTime desc")
-    List<Bill> findAllFetch();
+    /**
+     * Bill list rows ordered by (issuedTime, id) descending, starting strictly after the cursor.
+     * The payment method is aggregated in SQL: "Pending" with no payment, the method itself with
+     * one payment, "Multiple" otherwise. The page size comes from the pageable; no count query is run.
+     */
+    @Query("""
+        select new com.fu.coffeeshop_management.server.dto.BillSummaryDTO(
+            b.id, b.issuedTime, b.finalAmount, b.paymentStatus, s.fullname,
+            case when count(bp.id) = 0 then 'Pending'
+                 when count(bp.id) = 1 then max(bp.paymentMethod)
+                 else 'Multiple' end)
+        from Bill b
+        join b.order o
+        join o.staff s
+        left join b.billPayments bp
+        where (:start is null or b.issuedTime >= :start)
+          and (:end   is null or b.issuedTime <= :end)
+          and (:cursorTime is null
+                or b.issuedTime < :cursorTime
+                or (b.issuedTime = :cursorTime and b.id < :cursorId))
+        group by b.id, b.issuedTime, b.finalAmount, b.paymentStatus, s.fullname
+        order by b.issuedTime desc, b.id desc
+    """)
+    List<BillSummaryDTO> findBillSummaries(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable);
 }
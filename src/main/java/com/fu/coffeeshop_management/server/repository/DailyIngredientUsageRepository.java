@@ -0,0 +1,34 @@
+package com.fu.coffeeshop_management.server.repository;
+
+import com.fu.coffeeshop_management.server.dto.IngredientConsumption;
+import com.fu.coffeeshop_management.server.entity.DailyIngredientUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DailyIngredientUsageRepository extends JpaRepository<DailyIngredientUsage, UUID> {
+
+    List<DailyIngredientUsage> findByProductIdInAndUsageDateBetween(Collection<UUID> productIds, LocalDate from, LocalDate to);
+
+    /**
+     * Consumption per product since {@code shortFrom} and since {@code longFrom} (the earlier day), in one pass.
+     */
+    @Query("""
+        select new com.fu.coffeeshop_management.server.dto.IngredientConsumption(
+            u.productId,
+            sum(case when u.usageDate >= :shortFrom then u.consumedQuantity else 0 end),
+            sum(u.consumedQuantity))
+        from DailyIngredientUsage u
+        where u.usageDate >= :longFrom
+        group by u.productId
+    """)
+    List<IngredientConsumption> sumConsumption(@Param("shortFrom") LocalDate shortFrom,
+                                               @Param("longFrom") LocalDate longFrom);
+}
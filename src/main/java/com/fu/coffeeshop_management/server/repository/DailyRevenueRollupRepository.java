@@ -0,0 +1,58 @@
+package com.fu.coffeeshop_management.server.repository;
+
+import com.fu.coffeeshop_management.server.entity.DailyRevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyRevenueRollupRepository extends JpaRepository<DailyRevenueRollup, LocalDate> {
+
+    List<DailyRevenueRollup> findByRevenueDateBetweenOrderByRevenueDateAsc(LocalDate from, LocalDate to);
+
+    /**
+     * Adds one paid bill to its day, creating the row on first use. A single statement, so concurrent
+     * payments on the same day cannot lose updates.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_revenue_rollup (revenue_date, total_revenue, bill_count, updated_at) " +
+            "VALUES (:day, :amount, 1, :now) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "total_revenue = total_revenue + :amount, " +
+            "bill_count = bill_count + 1, " +
+            "updated_at = :now", nativeQuery = true)
+    void addPaidBill(@Param("day") LocalDate day,
+                     @Param("amount") BigDecimal amount,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_revenue_rollup WHERE revenue_date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Recomputes the rows for bills issued in [start, end) from the bill table. The range should have
+     * been cleared with {@link #deleteRange} first; a row a concurrent payment re-created in the
+     * meantime is overwritten with the recomputed totals instead of failing the rebuild.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_revenue_rollup (revenue_date, total_revenue, bill_count, updated_at) " +
+            "SELECT CAST(b.issued_time AS DATE), SUM(b.final_amount), COUNT(b.id), :now " +
+            "FROM bill b " +
+            "WHERE UPPER(b.payment_status) = 'PAID' " +
+            "AND b.issued_time >= :start AND b.issued_time < :end " +
+            "GROUP BY CAST(b.issued_time AS DATE) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "total_revenue = VALUES(total_revenue), " +
+            "bill_count = VALUES(bill_count), " +
+            "updated_at = VALUES(updated_at)", nativeQuery = true)
+    int insertFromBills(@Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end,
+                        @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,24 @@
+package com.fu.coffeeshop_management.server.repository;
+
+import com.fu.coffeeshop_management.server.entity.IngredientAnalytics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface IngredientAnalyticsRepository extends JpaRepository<IngredientAnalytics, UUID> {
+
+    /**
+     * Locks the analytics rows of the given products (SELECT ... FOR UPDATE), in primary key order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from IngredientAnalytics a where a.productId in :productIds order by a.productId")
+    List<IngredientAnalytics> findAllForUpdate(@Param("productIds") Collection<UUID> productIds);
+}
@@ -1,13 +1,17 @@
 package com.fu.coffeeshop_management.server.repository;
 
+import com.fu.coffeeshop_management.server.dto.LedgerEntry;
+import com.fu.coffeeshop_management.server.dto.StockTransactionResponse;
 import com.fu.coffeeshop_management.server.entity.InventoryTransaction;
 import com.fu.coffeeshop_management.server.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,11 +24,34 @@ public interface InventoryTransactionRepository extends JpaRepository<InventoryT
     List<InventoryTransaction> findByProduct(Product product);
     
     /**
-     * Find all transactions for a product ordered by time descending
+     * History rows of a product ordered by (transactionTime, id) descending, starting strictly after the
+     * cursor, with product and user names joined in. Type and time bounds are optional. Served by the
+     * (product_id, transaction_time) index; the page size comes from the pageable and no count query is run.
      */
-    @Query("SELECT it FROM InventoryTransaction it WHERE it.product.id = :productId ORDER BY it.transactionTime DESC")
-    List<InventoryTransaction> findByProductIdOrderByTransactionTimeDesc(@Param("productId") UUID productId);
-    
+    @Query("""
+        SELECT new com.fu.coffeeshop_management.server.dto.StockTransactionResponse(
+            it.id, p.id, p.name, it.quantity, it.transactionType, it.unitCost, it.note, it.transactionTime, u.email)
+        FROM InventoryTransaction it
+        JOIN it.product p
+        JOIN it.user u
+        WHERE p.id = :productId
+          AND (:type IS NULL OR it.transactionType = :type)
+          AND (:start IS NULL OR it.transactionTime >= :start)
+          AND (:end   IS NULL OR it.transactionTime <= :end)
+          AND (:cursorTime IS NULL
+                OR it.transactionTime < :cursorTime
+                OR (it.transactionTime = :cursorTime AND it.id < :cursorId))
+        ORDER BY it.transactionTime DESC, it.id DESC
+    """)
+    List<StockTransactionResponse> findHistory(
+            @Param("productId") UUID productId,
+            @Param("type") String type,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable);
+
     /**
      * Find transactions within a date range
      */
@@ -42,4 +69,28 @@ public interface InventoryTransactionRepository extends JpaRepository<InventoryT
      */
     @Query("SELECT COUNT(it) FROM InventoryTransaction it WHERE it.product.id = :productId AND it.transactionType = 'INCOMING'")
     Long countIncomingByProductId(@Param("productId") UUID productId);
+
+    /**
+     * Products with at least one transaction in (since, upTo]; a null {@code since} means from the beginning.
+     */
+    @Query("""
+        SELECT DISTINCT it.product.id FROM InventoryTransaction it
+        WHERE (:since IS NULL OR it.transactionTime > :since) AND it.transactionTime <= :upTo
+    """)
+    List<UUID> findProductIdsWithTransactions(@Param("since") LocalDateTime since, @Param("upTo") LocalDateTime upTo);
+
+    /**
+     * Transactions of the given products in (since, upTo] as plain columns, ordered by product, then time and id.
+     */
+    @Query("""
+        SELECT new com.fu.coffeeshop_management.server.dto.LedgerEntry(
+            it.id, it.product.id, it.transactionType, it.quantity, it.unitCost, it.transactionTime)
+        FROM InventoryTransaction it
+        WHERE it.product.id IN :productIds
+          AND (:since IS NULL OR it.transactionTime > :since) AND it.transactionTime <= :upTo
+        ORDER BY it.product.id, it.transactionTime, it.id
+    """)
+    List<LedgerEntry> findLedgerEntries(@Param("productIds") Collection<UUID> productIds,
+                                        @Param("since") LocalDateTime since,
+                                        @Param("upTo") LocalDateTime upTo);
 }
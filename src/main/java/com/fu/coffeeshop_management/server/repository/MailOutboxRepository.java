@@ -0,0 +1,44 @@
+package com.fu.coffeeshop_management.server.repository;
+
+import com.fu.coffeeshop_management.server.entity.MailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, UUID> {
+
+    /**
+     * Locks the next due messages: pending ones whose retry time has come, and claimed ones whose
+     * dispatcher died before reporting back. Rows locked by another dispatcher are skipped
+     * (lock timeout -2 = SKIP LOCKED), so several instances can drain the outbox concurrently.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+        select m from MailOutbox m
+        where m.status in ('PENDING', 'SENDING') and m.nextAttemptAt <= :now
+        order by m.nextAttemptAt asc, m.id asc
+    """)
+    List<MailOutbox> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(String status);
+
+    /**
+     * Deletes SENT and FAILED messages created before the cutoff.
+     */
+    @Modifying
+    @Query("delete from MailOutbox m where m.status in ('SENT', 'FAILED') and m.createdAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
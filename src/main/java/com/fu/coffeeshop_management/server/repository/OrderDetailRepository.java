@@ -17,36 +17,22 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, UUID>
      */
     List<OrderDetail> findByOrderId(UUID orderId);
 
+    /**
+     * Units sold and revenue per (day, product name) for completed orders created in the range.
+     * Rows are [LocalDate day, String itemName, Long totalUnit, BigDecimal totalRevenue].
+     */
     @Query("SELECT " +
-            "p.name AS itemName, " +
-            "SUM(od.quantity) AS totalUnit, " +
-            "SUM(od.price * od.quantity) AS totalRevenue " +
-            "FROM OrderDetail od " +
-            "JOIN od.product p " +
-            "JOIN od.order o " +
-            "WHERE o.status = 'COMPLETED' " +
-            "AND o.createdAt BETWEEN :startDate AND :endDate " +
-            "GROUP BY p.name " +
-            "ORDER BY totalUnit DESC " +
-            "LIMIT 3")
-    List<Object[]> findTopSellingItems(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
-
-    @Query("SELECT " +
-            "p.name AS itemName, " +
-            "SUM(od.quantity) AS totalUnit, " +
-            "SUM(od.price * od.quantity) AS totalRevenue " +
+            "cast(o.createdAt as LocalDate), " +
+            "p.name, " +
+            "SUM(od.quantity), " +
+            "SUM(od.price * od.quantity) " +
             "FROM OrderDetail od " +
             "JOIN od.product p " +
             "JOIN od.order o " +
             "WHERE o.status = 'COMPLETED' " +
             "AND o.createdAt BETWEEN :startDate AND :endDate " +
-            "GROUP BY p.name " +
-            "ORDER BY totalUnit ASC " +
-            "LIMIT 3")
-    List<Object[]> findBottomSellingItems(
+            "GROUP BY cast(o.createdAt as LocalDate), p.name")
+    List<Object[]> findDailyItemSales(
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
@@ -1,10 +1,19 @@
 package com.fu.coffeeshop_management.server.repository;
 
+import com.fu.coffeeshop_management.server.dto.OrderItemRow;
+import com.fu.coffeeshop_management.server.dto.OrderSummaryRow;
+import com.fu.coffeeshop_management.server.dto.OrderTableRow;
 import com.fu.coffeeshop_management.server.entity.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,4 +29,70 @@ public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecific
      * Finds all orders created by a specific staff member.
      */
     List<Order> findByStaffId(UUID staffId);
+
+    /**
+     * Loads an order with everything the order screen renders (staff, tables, lines and products).
+     */
+    @EntityGraph(Order.GRAPH_SCREEN)
+    Optional<Order> findForScreenById(UUID id);
+
+    /**
+     * Loads an order with the lines and tables needed to calculate and generate its bill.
+     */
+    @EntityGraph(Order.GRAPH_BILLING)
+    Optional<Order> findForBillingById(UUID id);
+
+    /**
+     * Loads an order with the cashier, tables and lines shown on the bill detail page.
+     */
+    @EntityGraph(Order.GRAPH_BILL_DETAIL)
+    Optional<Order> findForBillDetailById(UUID id);
+
+    /**
+     * Finds one page of order headers ordered by (createdAt, id) descending, starting strictly
+     * after the given cursor position. The page size comes from the pageable; no count query is run.
+     */
+    @Query("""
+        select new com.fu.coffeeshop_management.server.dto.OrderSummaryRow(
+            o.id, o.createdAt, o.totalPrice, o.status, o.note, s.email)
+        from Order o
+        join o.staff s
+        where (:fromDate is null or o.createdAt >= :fromDate)
+          and (:toDate   is null or o.createdAt <= :toDate)
+          and (:status   is null or o.status = :status)
+          and (:staffId  is null or s.id = :staffId)
+          and (:tableId  is null or exists (
+                select 1 from TableOrder t where t.order = o and t.tableInfo.id = :tableId))
+          and (:cursorTime is null
+                or o.createdAt < :cursorTime
+                or (o.createdAt = :cursorTime and o.id < :cursorId))
+        order by o.createdAt desc, o.id desc
+    """)
+    List<OrderSummaryRow> findOrderPage(
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            @Param("status") String status,
+            @Param("staffId") UUID staffId,
+            @Param("tableId") UUID tableId,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable
+    );
+
+    @Query("""
+        select new com.fu.coffeeshop_management.server.dto.OrderTableRow(t.order.id, ti.id, ti.name)
+        from TableOrder t
+        join t.tableInfo ti
+        where t.order.id in :orderIds
+    """)
+    List<OrderTableRow> findTableRowsByOrderIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("""
+        select new com.fu.coffeeshop_management.server.dto.OrderItemRow(
+            od.order.id, p.id, p.name, od.quantity, od.price)
+        from OrderDetail od
+        join od.product p
+        where od.order.id in :orderIds
+    """)
+    List<OrderItemRow> findItemRowsByOrderIds(@Param("orderIds") Collection<UUID> orderIds);
 }
@@ -1,12 +1,17 @@
 package com.fu.coffeeshop_management.server.repository;
 
+import com.fu.coffeeshop_management.server.dto.IngredientResponse;
+import com.fu.coffeeshop_management.server.dto.ProductCatalogEntry;
 import com.fu.coffeeshop_management.server.dto.StockItemDetailDTO;
 import com.fu.coffeeshop_management.server.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,9 +30,6 @@ public interface ProductRepository extends JpaRepository<Product, UUID>{
      */
     List<Product> findByCategoryNameAndStatus(String categoryName, String status);
 
-    @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE c.name = :categoryName AND p.name LIKE %:keyword%")
-    List<Product> findByCategoryNameAndKeyword(String categoryName, String keyword);
-
     List<Product> findAllByName(String name);
 
     /**
@@ -38,41 +40,65 @@ public interface ProductRepository extends JpaRepository<Product, UUID>{
     List<Product> findByStatusIgnoreCase(String status);
     List<Product> findByStatusIgnoreCaseAndCategoryId(String status, UUID categoryId);
 
-    List<Product> findByNameContainingIgnoreCase(String keyword);
-    List<Product> findByStatusIgnoreCaseAndNameContainingIgnoreCase(String status, String keyword);
-    List<Product> findByCategoryIdAndNameContainingIgnoreCase(UUID categoryId, String keyword);
-    List<Product> findByStatusIgnoreCaseAndCategoryIdAndNameContainingIgnoreCase(String status, UUID categoryId, String keyword);
-
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category LEFT JOIN FETCH p.stock WHERE p.id = :id")
     Optional<Product> findByIdWithCategoryAndStock(@Param("id") UUID id);
 
     /**
-     * Finds all ingredients (products with category name "Ingredient")
+     * Ingredients (products with category name "Ingredient") with the given status, projected
+     * together with their stock row in one query and ordered by name. Ingredients without a stock
+     * row get null stock fields.
      */
-    @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE c.name = 'Ingredient' AND p.status = :status")
-    List<Product> findIngredientsByStatus(@Param("status") String status);
+    @Query(value = """
+        select new com.fu.coffeeshop_management.server.dto.IngredientResponse(
+            p.id, p.name, p.description, p.price, p.imageLink, p.status, c.name,
+            s.quantityInStock, s.reorderLevel, s.unit,
+            case when s.reorderLevel is not null and s.quantityInStock <= s.reorderLevel then true else false end)
+        from Product p
+        join p.category c
+        left join p.stock s
+        where c.name = 'Ingredient' and p.status = :status
+        order by p.name asc, p.id asc
+    """, countQuery = """
+        select count(p) from Product p join p.category c
+        where c.name = 'Ingredient' and p.status = :status
+    """)
+    Page<IngredientResponse> findIngredientRows(@Param("status") String status, Pageable pageable);
 
     /**
-     * Search ingredients by name (case-insensitive)
+     * Same projection as {@link #findIngredientRows} for the given product IDs, in no particular order.
      */
-    @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE c.name = 'Ingredient' AND LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Product> searchIngredientsByName(@Param("name") String name);
+    @Query("""
+        select new com.fu.coffeeshop_management.server.dto.IngredientResponse(
+            p.id, p.name, p.description, p.price, p.imageLink, p.status, c.name,
+            s.quantityInStock, s.reorderLevel, s.unit,
+            case when s.reorderLevel is not null and s.quantityInStock <= s.reorderLevel then true else false end)
+        from Product p
+        join p.category c
+        left join p.stock s
+        where p.id in :ids
+    """)
+    List<IngredientResponse> findIngredientRowsByIdIn(@Param("ids") Collection<UUID> ids);
 
+    /**
+     * Loads every product as a flat catalog entry (no entity, no lazy associations), ordered by name.
+     */
     @Query("""
-        select p from Product p
-        where (:status     is null or lower(p.status) = lower(:status))
-          and (:categoryId is null or p.category.id   = :categoryId)
-          and (:keyword    is null or lower(p.name) like lower(concat('%', :keyword, '%')))
+        select new com.fu.coffeeshop_management.server.dto.ProductCatalogEntry(
+            p.id, p.name, p.description, p.price, p.imageLink, p.status, c.id, c.name)
+        from Product p
+        join p.category c
         order by p.name asc
     """)
-    List<Product> listProducts(
-            @Param("status") String status,
-            @Param("categoryId") UUID categoryId,
-            @Param("keyword") String keyword
-    );
+    List<ProductCatalogEntry> findCatalogEntries();
 
-    @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword%")
-    List<Product> findByKeyword(String keyword);
+    @Query("""
+        select new com.fu.coffeeshop_management.server.dto.ProductCatalogEntry(
+            p.id, p.name, p.description, p.price, p.imageLink, p.status, c.id, c.name)
+        from Product p
+        join p.category c
+        where p.id in :ids
+    """)
+    List<ProductCatalogEntry> findCatalogEntriesByIdIn(@Param("ids") Collection<UUID> ids);
 
     Optional<Product> findByName(String name);
 
@@ -94,6 +120,6 @@ public interface ProductRepository extends JpaRepository<Product, UUID>{
             "JOIN p.stock s " +
             "JOIN p.category c " +
             "WHERE c.name = 'Ingredient' " +
-            "AND s.reorderLevel <= 3")
+            "AND s.quantityInStock <= s.reorderLevel")
     Long countLowStockIngredients();
 }
@@ -11,4 +11,9 @@ import java.util.UUID;
 @Repository
 public interface PurchaseOrderDetailRepository extends JpaRepository<PurchaseOrderDetail, UUID> {
     List<PurchaseOrderDetail> findByPurchaseOrder(PurchaseOrder purchaseOrder);
+
+    /**
+     * Lines of a purchase order; products are left as references, their names come from the catalog cache.
+     */
+    List<PurchaseOrderDetail> findByPurchaseOrderId(UUID purchaseOrderId);
 }
@@ -3,13 +3,37 @@ package com.fu.coffeeshop_management.server.repository;
 import com.fu.coffeeshop_management.server.entity.PurchaseOrder;
 
 import com.fu.coffeeshop_management.server.entity.Supplier;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, UUID> {
     List<PurchaseOrder> findBySupplier(Supplier supplier);
+
+    @EntityGraph(attributePaths = {"supplier", "createdBy"})
+    Optional<PurchaseOrder> findDetailById(UUID id);
+
+    /**
+     * Locks the purchase order row, so the same order cannot be received twice concurrently.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select po from PurchaseOrder po where po.id = :id")
+    Optional<PurchaseOrder> findForUpdateById(@Param("id") UUID id);
+
+    @EntityGraph(attributePaths = {"supplier", "createdBy"})
+    Page<PurchaseOrder> findByStatus(String status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"supplier", "createdBy"})
+    Page<PurchaseOrder> findAllBy(Pageable pageable);
 }
@@ -0,0 +1,38 @@
+package com.fu.coffeeshop_management.server.repository;
+
+import com.fu.coffeeshop_management.server.dto.RecipeLine;
+import com.fu.coffeeshop_management.server.entity.RecipeItem;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RecipeItemRepository extends JpaRepository<RecipeItem, UUID> {
+
+    /**
+     * Recipe of one product with its ingredients and their stock.
+     */
+    @EntityGraph(attributePaths = {"ingredient", "ingredient.stock"})
+    List<RecipeItem> findByProductId(UUID productId);
+
+    /**
+     * Recipe lines of all given products, in one query and without loading any entity.
+     */
+    @Query("""
+        select new com.fu.coffeeshop_management.server.dto.RecipeLine(r.product.id, r.ingredient.id, r.quantity)
+        from RecipeItem r
+        where r.product.id in :productIds
+    """)
+    List<RecipeLine> findLinesByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from RecipeItem r where r.product.id = :productId")
+    int deleteByProductId(@Param("productId") UUID productId);
+}
@@ -1,10 +1,21 @@
 package com.fu.coffeeshop_management.server.repository;
 
+import com.fu.coffeeshop_management.server.dto.ShiftCashTotalsRow;
+import com.fu.coffeeshop_management.server.dto.ShiftStatsRow;
 import com.fu.coffeeshop_management.server.entity.Shift;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,9 +23,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ShiftRepository extends JpaRepository<Shift, UUID> {
+public interface ShiftRepository extends JpaRepository<Shift, UUID>, JpaSpecificationExecutor<Shift> {
     /**
      * Finds all shifts with a specific status (e.g., "open", "closed").
      */
@@ -28,54 +40,78 @@ public interface ShiftRepository extends JpaRepository<Shift, UUID> {
     /**
      * Find all shifts for a specific user
      */
+    @EntityGraph(attributePaths = {"user", "user.role"})
     Page<Shift> findByUserIdOrderByStartTimeDesc(UUID userId, Pageable pageable);
 
     /**
-     * Find all shifts with pagination and sorting
+     * Filtered shift page (see ShiftSpecs), with the cashier fetched in the same query.
      */
-    Page<Shift> findAllByOrderByStartTimeDesc(Pageable pageable);
+    @Override
+    @EntityGraph(attributePaths = {"user", "user.role"})
+    Page<Shift> findAll(Specification<Shift> spec, Pageable pageable);
 
     /**
-     * Find shifts by status with pagination
+     * Streams the statistics columns of every shift started in the range, optionally for one user.
+     * Must be consumed inside a transaction and closed.
      */
-    Page<Shift> findByStatusOrderByStartTimeDesc(String status, Pageable pageable);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.fu.coffeeshop_management.server.dto.ShiftStatsRow(
+            s.status, s.startTime, s.endTime, s.openingCash, s.closingCash,
+            s.totalCashIn, s.totalCashOut, s.totalRefunds, s.transactionCount)
+        FROM Shift s
+        WHERE s.startTime >= :startDate AND s.startTime <= :endDate
+          AND (:userId IS NULL OR s.user.id = :userId)
+    """)
+    Stream<ShiftStatsRow> streamStatsRows(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          @Param("userId") UUID userId);
 
     /**
-     * Find shifts by user and status with pagination
+     * Opening cash, cash in/out/refund totals and counts for one shift, in one round trip.
      */
-    Page<Shift> findByUserIdAndStatusOrderByStartTimeDesc(UUID userId, String status, Pageable pageable);
+    @Query(SHIFT_CASH_TOTALS + "WHERE s.id = :shiftId GROUP BY s.id, s.openingCash")
+    Optional<ShiftCashTotalsRow> findCashTotals(@Param("shiftId") UUID shiftId);
 
     /**
-     * Find shifts within a date range
+     * Same as {@link #findByUserIdAndStatus}, but locks the shift row (SELECT ... FOR UPDATE) so that
+     * concurrent cash transactions on the same shift update its running totals one after another.
      */
-    @Query("SELECT s FROM Shift s WHERE s.startTime >= :startDate AND s.startTime <= :endDate ORDER BY s.startTime DESC")
-    Page<Shift> findByDateRange(@Param("startDate") LocalDateTime startDate, 
-                                @Param("endDate") LocalDateTime endDate, 
-                                Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Shift s WHERE s.user.id = :userId AND s.status = :status")
+    Optional<Shift> findForUpdateByUserIdAndStatus(@Param("userId") UUID userId, @Param("status") String status);
 
     /**
-     * Find shifts by user within a date range
+     * Recomputes the running totals of shifts whose transaction count does not match their cash
+     * transactions (shifts recorded before the totals existed). Consistent shifts are left untouched.
+     *
+     * @return the number of shifts repaired.
      */
-    @Query("SELECT s FROM Shift s WHERE s.user.id = :userId AND s.startTime >= :startDate AND s.startTime <= :endDate ORDER BY s.startTime DESC")
-    Page<Shift> findByUserIdAndDateRange(@Param("userId") UUID userId,
-                                         @Param("startDate") LocalDateTime startDate,
-                                         @Param("endDate") LocalDateTime endDate,
-                                         Pageable pageable);
+    @Modifying
+    @Query("""
+        UPDATE Shift s SET
+            s.totalCashIn  = COALESCE((SELECT SUM(ct.amount) FROM CashTransaction ct
+                                       WHERE ct.shift = s AND ct.transactionType = 'CASH_IN'), 0),
+            s.totalCashOut = COALESCE((SELECT SUM(ct.amount) FROM CashTransaction ct
+                                       WHERE ct.shift = s AND ct.transactionType = 'CASH_OUT'), 0),
+            s.totalRefunds = COALESCE((SELECT SUM(ct.amount) FROM CashTransaction ct
+                                       WHERE ct.shift = s AND ct.transactionType = 'REFUND'), 0),
+            s.transactionCount = (SELECT COUNT(ct) FROM CashTransaction ct WHERE ct.shift = s)
+        WHERE s.transactionCount <> (SELECT COUNT(ct) FROM CashTransaction ct WHERE ct.shift = s)
+    """)
+    int backfillCashTotals();
 
-    /**
-     * Find shifts by status within a date range
-     */
-    @Query("SELECT s FROM Shift s WHERE s.status = :status AND s.startTime >= :startDate AND s.startTime <= :endDate ORDER BY s.startTime DESC")
-    Page<Shift> findByStatusAndDateRange(@Param("status") String status,
-                                         @Param("startDate") LocalDateTime startDate,
-                                         @Param("endDate") LocalDateTime endDate,
-                                         Pageable pageable);
-
-    /**
-     * Count shifts by status within date range
-     */
-    @Query("SELECT COUNT(s) FROM Shift s WHERE s.status = :status AND s.startTime >= :startDate AND s.startTime <= :endDate")
-    long countByStatusAndDateRange(@Param("status") String status,
-                                   @Param("startDate") LocalDateTime startDate,
-                                   @Param("endDate") LocalDateTime endDate);
+    String SHIFT_CASH_TOTALS = """
+        SELECT new com.fu.coffeeshop_management.server.dto.ShiftCashTotalsRow(
+            s.id, s.openingCash,
+            COALESCE(SUM(CASE WHEN ct.transactionType = 'CASH_IN'  THEN ct.amount END), 0),
+            COALESCE(SUM(CASE WHEN ct.transactionType = 'CASH_OUT' THEN ct.amount END), 0),
+            COALESCE(SUM(CASE WHEN ct.transactionType = 'REFUND'   THEN ct.amount END), 0),
+            COUNT(CASE WHEN ct.transactionType = 'CASH_IN'  THEN 1 END),
+            COUNT(CASE WHEN ct.transactionType = 'CASH_OUT' THEN 1 END),
+            COUNT(CASE WHEN ct.transactionType = 'REFUND'   THEN 1 END),
+            COUNT(ct.id))
+        FROM Shift s
+        LEFT JOIN CashTransaction ct ON ct.shift = s
+        """;
 }
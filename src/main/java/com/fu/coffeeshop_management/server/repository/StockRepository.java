@@ -1,10 +1,14 @@
 package com.fu.coffeeshop_management.server.repository;
 
 import com.fu.coffeeshop_management.server.entity.Stock;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,4 +20,33 @@ public interface StockRepository extends JpaRepository<Stock, UUID>{
      */
     @Query("SELECT s FROM Stock s WHERE s.quantityInStock <= s.reorderLevel")
     List<Stock> findLowStockItems();
+
+    /**
+     * Low-stock ingredients with their product and category, in one query.
+     */
+    @Query("""
+        select s from Stock s
+        join fetch s.product p
+        join fetch p.category c
+        where c.name = 'Ingredient' and s.quantityInStock <= s.reorderLevel
+    """)
+    List<Stock> findLowStockIngredients();
+
+    /**
+     * Stock rows of the given products that are ingredients, with their product and category.
+     */
+    @Query("""
+        select s from Stock s
+        join fetch s.product p
+        join fetch p.category c
+        where c.name = 'Ingredient' and s.productId in :productIds
+    """)
+    List<Stock> findIngredientStocks(@Param("productIds") Collection<UUID> productIds);
+
+    /**
+     * Locks the stock rows of the given products (SELECT ... FOR UPDATE), in primary key order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Stock s where s.productId in :productIds order by s.productId")
+    List<Stock> findAllForUpdate(@Param("productIds") Collection<UUID> productIds);
 }
@@ -0,0 +1,79 @@
+package com.fu.coffeeshop_management.server.repository.specs;
+
+import com.fu.coffeeshop_management.server.entity.Shift;
+import com.fu.coffeeshop_management.server.util.KeysetCursor;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class ShiftSpecs {
+
+    /**
+     * Newest shift first; the id breaks ties so keyset pagination is stable.
+     */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("startTime"), Sort.Order.desc("id"));
+
+    /**
+     * Combines every filter that is set; null arguments are ignored.
+     *
+     * @param status          shift status, case-insensitive; "all" means any status.
+     * @param minDiscrepancy  only closed shifts whose |closing cash - expected cash| is at least this amount.
+     */
+    public static Specification<Shift> filter(
+            String status,
+            UUID userId,
+            LocalDateTime startFrom,
+            LocalDateTime startTo,
+            BigDecimal minDiscrepancy
+    ) {
+        return (root, q, cb) -> {
+            List<Predicate> ps = new ArrayList<>();
+
+            if (status != null && !status.isBlank() && !status.equalsIgnoreCase("all")) {
+                ps.add(cb.equal(root.get("status"), status.trim().toUpperCase()));
+            }
+            if (userId != null) {
+                ps.add(cb.equal(root.get("user").get("id"), userId));
+            }
+            if (startFrom != null) {
+                ps.add(cb.greaterThanOrEqualTo(root.get("startTime"), startFrom));
+            }
+            if (startTo != null) {
+                ps.add(cb.lessThanOrEqualTo(root.get("startTime"), startTo));
+            }
+            if (minDiscrepancy != null) {
+                Expression<BigDecimal> expected = cb.diff(cb.diff(
+                        cb.sum(root.<BigDecimal>get("openingCash"), root.<BigDecimal>get("totalCashIn")),
+                        root.<BigDecimal>get("totalCashOut")),
+                        root.<BigDecimal>get("totalRefunds"));
+                ps.add(cb.isNotNull(root.get("closingCash")));
+                ps.add(cb.greaterThanOrEqualTo(
+                        cb.abs(cb.diff(root.<BigDecimal>get("closingCash"), expected)), minDiscrepancy));
+            }
+
+            return cb.and(ps.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Shifts strictly after the cursor in {@link #NEWEST_FIRST} order; everything when there is no cursor.
+     */
+    public static Specification<Shift> after(KeysetCursor cursor) {
+        return (root, q, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            return cb.or(
+                    cb.lessThan(root.get("startTime"), cursor.timestamp()),
+                    cb.and(cb.equal(root.get("startTime"), cursor.timestamp()),
+                            cb.lessThan(root.get("id"), cursor.id())));
+        };
+    }
+}
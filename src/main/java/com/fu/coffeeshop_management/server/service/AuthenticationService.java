@@ -3,14 +3,10 @@ package com.fu.coffeeshop_management.server.service;
 import com.fu.coffeeshop_management.server.dto.*;
 import com.fu.coffeeshop_management.server.entity.Role;
 import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.exception.TooManyRequestsException;
 import com.fu.coffeeshop_management.server.repository.RoleRepository;
 import com.fu.coffeeshop_management.server.repository.UserRepository;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -33,7 +29,8 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
-    private final JavaMailSender mailSender;
+    private final MailOutboxService mailOutboxService;
+    private final UserPrincipalCache userPrincipalCache;
 
     public AuthenticationService(
             UserRepository userRepository,
@@ -41,14 +38,16 @@ public class AuthenticationService {
             PasswordEncoder passwordEncoder,
             JwtService jwtService,
             AuthenticationManager authenticationManager,
-            JavaMailSender mailSender
+            MailOutboxService mailOutboxService,
+            UserPrincipalCache userPrincipalCache
     ) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
-        this.mailSender = mailSender;
+        this.mailOutboxService = mailOutboxService;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     /**
@@ -101,6 +100,9 @@ public class AuthenticationService {
                             request.getPassword()
                     )
             );
+        } catch (TooManyRequestsException e) {
+            // Password hashing is saturated; let the client back off instead of reporting bad credentials.
+            throw e;
         } catch (Exception e) {
             throw new IllegalArgumentException("Invalid email or password");
         }
@@ -133,6 +135,7 @@ public class AuthenticationService {
         }
         user.get().setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user.get());
+        userPrincipalCache.evict(user.get().getEmail());
         return UserResponse.builder()
                 .id(user.get().getId())
                 .email(user.get().getEmail())
@@ -142,6 +145,11 @@ public class AuthenticationService {
                 .build();
     }
 
+    /**
+     * Sets a random temporary password and queues it for email. The email is written to the outbox
+     * in the same transaction and delivered in the background, so this never waits for SMTP.
+     */
+    @Transactional
     public void resetPassword(String email) {
         var userOptional = userRepository.findByEmail(email);
         if (userOptional.isEmpty()) {
@@ -151,51 +159,39 @@ public class AuthenticationService {
         String newPassword = UUID.randomUUID().toString().substring(0, 8);
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
-
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
-
-            String htmlMsg = """
-                    <!DOCTYPE html>
-                    <html lang="en">
-                    <head>
-                      <meta charset="UTF-8">
-                      <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                      <title>Password Reset</title>
-                      <style>
-                        body { font-family: Arial, sans-serif; background-color: #f4f4f4; margin: 0; padding: 0; }
-                        .container { width: 100%; max-width: 600px; margin: 0 auto; background-color: #ffffff; padding: 20px; border-radius: 8px;
-                                     box-shadow: 0 2px 4px rgba(0,0,0,0.1); }
-                        .password-box { background-color: #f0f0f0; border: 1px solid #dddddd; padding: 15px; text-align: center;
-                                        font-size: 20px; font-weight: bold; letter-spacing: 2px; border-radius: 4px; margin: 20px 0; }
-                      </style>
-                    </head>
-                    <body>
-                      <div class="container">
-                        <h1>Password Reset</h1>
-                        <p>Hello,</p>
-                        <p>You requested a password reset. Your new temporary password is:</p>
-                        <div class="password-box">{{PASSWORD}}</div>
-                        <p>Please change this password after logging in for security reasons.</p>
-                        <p>If you did not request a password reset, please ignore this email.</p>
-                        <div class="footer"><p>&copy; 2024 Coffeeshop Management. All rights reserved.</p></div>
-                      </div>
-                    </body>
-                    </html>
-                    """;
-
-            htmlMsg = htmlMsg.replace("{{PASSWORD}}", newPassword);
-            helper.setText(htmlMsg, true);
-
-            helper.setTo(email);
-            helper.setSubject("Your New Password");
-            mailSender.send(mimeMessage);
-
-        } catch (MailException | MessagingException e) {
-            // Log the exception or handle it appropriately
-            throw new RuntimeException("Error sending email: " + e.getMessage());
-        }
+        userPrincipalCache.evict(user.getEmail());
+
+        String htmlMsg = """
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                  <meta charset="UTF-8">
+                  <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                  <title>Password Reset</title>
+                  <style>
+                    body { font-family: Arial, sans-serif; background-color: #f4f4f4; margin: 0; padding: 0; }
+                    .container { width: 100%; max-width: 600px; margin: 0 auto; background-color: #ffffff; padding: 20px; border-radius: 8px;
+                                 box-shadow: 0 2px 4px rgba(0,0,0,0.1); }
+                    .password-box { background-color: #f0f0f0; border: 1px solid #dddddd; padding: 15px; text-align: center;
+                                    font-size: 20px; font-weight: bold; letter-spacing: 2px; border-radius: 4px; margin: 20px 0; }
+                  </style>
+                </head>
+                <body>
+                  <div class="container">
+                    <h1>Password Reset</h1>
+                    <p>Hello,</p>
+                    <p>You requested a password reset. Your new temporary password is:</p>
+                    <div class="password-box">{{PASSWORD}}</div>
+                    <p>Please change this password after logging in for security reasons.</p>
+                    <p>If you did not request a password reset, please ignore this email.</p>
+                    <div class="footer"><p>&copy; 2024 Coffeeshop Management. All rights reserved.</p></div>
+                  </div>
+                </body>
+                </html>
+                """;
+
+        htmlMsg = htmlMsg.replace("{{PASSWORD}}", newPassword);
+        mailOutboxService.enqueue(email, "Your New Password", htmlMsg, true);
     }
 
 }
@@ -6,7 +6,11 @@ import com.fu.coffeeshop_management.server.exception.BadRequestException;
 import com.fu.coffeeshop_management.server.exception.ConflictException;
 import com.fu.coffeeshop_management.server.exception.NotFoundException;
 import com.fu.coffeeshop_management.server.repository.*;
+import com.fu.coffeeshop_management.server.util.KeysetCursor;
+import com.fu.coffeeshop_management.server.util.LegacyListing;
+import com.fu.coffeeshop_management.server.util.MoneyUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,10 +33,14 @@ public class BillService {
     private final BillPaymentRepository billPaymentRepository;
     private final LoyaltyRepository loyaltyRepository;
     private final LoyaltyService loyaltyService;
+    private final ProductCatalogCache productCatalogCache;
+    private final RevenueRollupService revenueRollupService;
+    private final RecipeService recipeService;
 
     private static final BigDecimal POINT_CONVERSION_RATE = new BigDecimal("1000");
     private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
     private static final BigDecimal POINT_EARNING_RATE = new BigDecimal("10000");
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Transactional(readOnly = true)
     public BillCalculationResponse calculateBill(BillGenerationRequest request) {
@@ -81,6 +89,7 @@ public class BillService {
             }
         }
         orderRepository.save(order);
+        recipeService.consumeIngredients(order);
 
         BillResponse response = new BillResponse();
         response.setBillId(savedBill.getId());
@@ -95,19 +104,14 @@ public class BillService {
     }
 
     private CalculationResult performCalculation(BillGenerationRequest request) {
-        Order order = orderRepository.findById(request.getOrderId())
+        Order order = orderRepository.findForBillingById(request.getOrderId())
                 .orElseThrow(() -> new NotFoundException("Order not found: " + request.getOrderId()));
 
         if (!"serving".equalsIgnoreCase(order.getStatus())) {
             throw new BadRequestException("Order is not in 'SERVING' state and cannot be billed.");
         }
 
-        Set<OrderDetail> orderDetailsSet = order.getOrderDetails();
-        List<OrderDetail> safeDetailsList = new ArrayList<>(orderDetailsSet);
-
-        BigDecimal subtotal = safeDetailsList.stream()
-                .map(detail -> detail.getPrice().multiply(new BigDecimal(detail.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal subtotal = MoneyUtils.sumLines(order.getOrderDetails(), OrderDetail::getPrice, OrderDetail::getQuantity);
 
         BigDecimal voucherDiscount = BigDecimal.ZERO;
         BigDecimal pointsDiscount = BigDecimal.ZERO;
@@ -184,10 +188,11 @@ public class BillService {
     @Transactional(readOnly = true)
     public BillDetailResponse getBillDetails(UUID billId) {
 
-        Bill bill = billRepository.findById(billId)
+        Bill bill = billRepository.findDetailById(billId)
                 .orElseThrow(() -> new NotFoundException("Selected bill no longer exists or was deleted."));
 
-        Order order = bill.getOrder();
+        Order order = orderRepository.findForBillDetailById(bill.getOrder().getId())
+                .orElseThrow(() -> new NotFoundException("Order not found: " + bill.getOrder().getId()));
         User cashier = order.getStaff();
         Customer customer = bill.getCustomer();
         Voucher voucher = bill.getVoucher();
@@ -240,19 +245,14 @@ public class BillService {
         BigDecimal price = Optional.ofNullable(detail.getPrice()).orElse(BigDecimal.ZERO);
         int quantity = detail.getQuantity();
 
-        String productName = null;
+        String productName = "Unknown";
         if (detail.getProduct() != null) {
-            try {
-                productName = detail.getProduct().getName();
-            } catch (org.hibernate.LazyInitializationException lie) {
-                productName = "Unknown";
-            }
-        } else {
-            productName = "Unknown";
+            productName = productCatalogCache.findById(detail.getProduct().getId())
+                    .map(ProductCatalogEntry::name)
+                    .orElse("Unknown");
         }
 
-        BigDecimal lineTotal = price.multiply(BigDecimal.valueOf(quantity))
-                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal lineTotal = MoneyUtils.lineTotal(price, quantity);
 
         return BillItemDTO.builder()
                 .productName(productName)
@@ -271,69 +271,55 @@ public class BillService {
                 .build();
     }
 
+    /**
+     * Legacy unpaged bill list, kept for existing clients: every matching bill, newest first, in one query.
+     *
+     * @throws BadRequestException if more than {@link LegacyListing#MAX_ROWS} bills match.
+     */
     @Transactional(readOnly = true)
     public List<BillSummaryDTO> getBillList(LocalDate date) {
-        LocalDateTime startOfDay = null;
-        LocalDateTime endOfDay = null;
-        List<Bill> bills;
-
-        if (date == null) {
-            bills = billRepository.findAllFetch();
-        } else {
-            LocalDate queryDate = date;
-            startOfDay = queryDate.atStartOfDay();
-            endOfDay = queryDate.atTime(LocalTime.MAX);
-            bills = billRepository.findBillsByDateRangeFetch(startOfDay, endOfDay);
-        }
-
-        if (bills == null || bills.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        bills.sort(Comparator.comparing(
-                        Bill::getIssuedTime,
-                        Comparator.nullsLast(Comparator.naturalOrder()))
-                .reversed());
-
-        List<UUID> billIds = bills.stream().map(Bill::getId).collect(Collectors.toList());
-        List<BillPayment> payments = billPaymentRepository.findByBill_IdIn(billIds);
-
-        Map<UUID, List<BillPayment>> paymentsByBillId = payments == null
-                ? Collections.emptyMap()
-                : payments.stream().collect(Collectors.groupingBy(bp -> bp.getBill().getId()));
-
-        return bills.stream()
-                .map(bill -> mapToBillSummaryDTO(bill, paymentsByBillId.get(bill.getId())))
-                .collect(Collectors.toList());
+        return LegacyListing.requireComplete(billRepository.findBillSummaries(
+                date != null ? date.atStartOfDay() : null,
+                date != null ? date.atTime(LocalTime.MAX) : null,
+                null, null, LegacyListing.probe()), "/api/v1/bills/page");
     }
 
-
-
-    private BillSummaryDTO mapToBillSummaryDTO(Bill bill, List<BillPayment> payments) {
-
-        String paymentMethod;
-        if (payments == null || payments.isEmpty()) {
-            paymentMethod = "Pending";
-        } else if (payments.size() == 1) {
-            paymentMethod = payments.get(0).getPaymentMethod();
-        } else {
-            paymentMethod = "Multiple";
+    /**
+     * Keyset-paginated bill list, newest first. One query per page, payments aggregated in SQL.
+     *
+     * @param date   restricts the list to bills issued that day (optional).
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BillSummaryDTO> getBillPage(LocalDate date, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        KeysetCursor position = KeysetCursor.decode(cursor);
+
+        List<BillSummaryDTO> rows = billRepository.findBillSummaries(
+                date != null ? date.atStartOfDay() : null,
+                date != null ? date.atTime(LocalTime.MAX) : null,
+                position != null ? position.timestamp() : null,
+                position != null ? position.id() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
         }
-
-        return BillSummaryDTO.builder()
-                .billId(bill.getId())
-                .issuedTime(bill.getIssuedTime())
-                .finalAmount(bill.getFinalAmount())
-                .paymentStatus(bill.getPaymentStatus())
-                .cashierName(bill.getOrder().getStaff().getFullname())
-                .paymentMethod(paymentMethod)
+        BillSummaryDTO last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return CursorPage.<BillSummaryDTO>builder()
+                .items(rows)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? new KeysetCursor(last.getIssuedTime(), last.getBillId()).encode() : null)
                 .build();
     }
 
     @Transactional
     public PaymentConfirmationResponse confirmPayment(UUID billId, PaymentConfirmationRequest request) {
 
-        Bill bill = billRepository.findById(billId)
+        // Locked so that of two concurrent confirmations only the first sees the bill pending;
+        // the second waits, then fails the status check instead of paying and counting it twice.
+        Bill bill = billRepository.findForPaymentById(billId)
                 .orElseThrow(() -> new NotFoundException("Bill not found."));
 
         if (!"Pending Payment".equalsIgnoreCase(bill.getPaymentStatus())) {
@@ -355,6 +341,7 @@ public class BillService {
 
         bill.setPaymentStatus("Paid");
         billRepository.save(bill);
+        revenueRollupService.recordPaidBill(bill);
 
         int pointsEarned = 0;
         int pointsSpent = 0;
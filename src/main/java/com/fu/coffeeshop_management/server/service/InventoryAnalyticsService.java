@@ -0,0 +1,238 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.LedgerEntry;
+import com.fu.coffeeshop_management.server.entity.AnalyticsCheckpoint;
+import com.fu.coffeeshop_management.server.entity.DailyIngredientUsage;
+import com.fu.coffeeshop_management.server.entity.IngredientAnalytics;
+import com.fu.coffeeshop_management.server.repository.AnalyticsCheckpointRepository;
+import com.fu.coffeeshop_management.server.repository.DailyIngredientUsageRepository;
+import com.fu.coffeeshop_management.server.repository.IngredientAnalyticsRepository;
+import com.fu.coffeeshop_management.server.repository.InventoryTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Folds the inventory ledger incrementally into the state behind the inventory analytics report:
+ * per product, the ledger quantity and weighted average cost ({@link IngredientAnalytics}), and per
+ * product and day, the quantity consumed and received ({@link DailyIngredientUsage}).
+ * <p>
+ * {@link #refresh()} runs on a schedule, off the request path; the report only reads what it left.
+ * A checkpoint records when the last complete pass started, and each pass reads the transactions
+ * recorded since then, in one ordered pass per product, so the full history is read once. Because a
+ * transaction's time is taken before it commits, each pass also re-reads {@link #COMMIT_LAG} before
+ * the checkpoint. Re-reading is harmless: every analytics row keeps the time and id of the last
+ * transaction folded into it, and {@link StockLedger} takes that time while holding the product's
+ * stock row lock, so a product's transactions commit in (time, id) order and anything up to the row's
+ * checkpoint is skipped. Products are folded in chunks, each in its own transaction with its
+ * analytics rows locked, so a chunk that fails is retried by the next pass without applying the
+ * others twice.
+ */
+@Service
+@Slf4j
+public class InventoryAnalyticsService {
+
+    static final String CHECKPOINT = "inventory_analytics";
+
+    /** How long a ledger transaction may take to commit after its time was taken and still be folded in. */
+    static final Duration COMMIT_LAG = Duration.ofMinutes(10);
+
+    /** The order transactions are folded in; ids break ties between transactions recorded at the same time. */
+    private static final Comparator<LedgerEntry> LEDGER_ORDER =
+            Comparator.comparing(LedgerEntry::transactionTime).thenComparing(LedgerEntry::id);
+
+    private static final int COST_SCALE = 4;
+
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final IngredientAnalyticsRepository ingredientAnalyticsRepository;
+    private final DailyIngredientUsageRepository dailyIngredientUsageRepository;
+    private final AnalyticsCheckpointRepository analyticsCheckpointRepository;
+    private final TransactionTemplate transaction;
+    private final int productsPerChunk;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public InventoryAnalyticsService(InventoryTransactionRepository inventoryTransactionRepository,
+                                     IngredientAnalyticsRepository ingredientAnalyticsRepository,
+                                     DailyIngredientUsageRepository dailyIngredientUsageRepository,
+                                     AnalyticsCheckpointRepository analyticsCheckpointRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${application.analytics.inventory.products-per-chunk:100}") int productsPerChunk) {
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.ingredientAnalyticsRepository = ingredientAnalyticsRepository;
+        this.dailyIngredientUsageRepository = dailyIngredientUsageRepository;
+        this.analyticsCheckpointRepository = analyticsCheckpointRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.productsPerChunk = productsPerChunk;
+    }
+
+    /**
+     * The time the last complete refresh started: every ledger transaction committed by then is
+     * folded in. Null until the first refresh has completed.
+     */
+    public LocalDateTime foldedUpTo() {
+        return analyticsCheckpointRepository.findById(CHECKPOINT)
+                .map(AnalyticsCheckpoint::getProcessedUpTo)
+                .orElse(null);
+    }
+
+    /**
+     * Folds in the ledger transactions recorded since the checkpoint and moves the checkpoint forward.
+     * Does nothing if a refresh is already running.
+     *
+     * @return the number of transactions folded in.
+     */
+    @Scheduled(fixedDelayString = "${application.analytics.inventory.refresh-interval:PT1M}",
+            initialDelayString = "${application.analytics.inventory.refresh-interval:PT1M}")
+    public int refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            return foldNewTransactions();
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private int foldNewTransactions() {
+        LocalDateTime checkpoint = foldedUpTo();
+        LocalDateTime since = checkpoint != null ? checkpoint.minus(COMMIT_LAG) : null;
+        LocalDateTime upTo = LocalDateTime.now();
+
+        List<UUID> productIds = inventoryTransactionRepository.findProductIdsWithTransactions(since, upTo);
+        int folded = 0;
+        for (int from = 0; from < productIds.size(); from += productsPerChunk) {
+            List<UUID> chunk = productIds.subList(from, Math.min(from + productsPerChunk, productIds.size()));
+            try {
+                folded += transaction.execute(status -> foldChunk(chunk, since, upTo));
+            } catch (RuntimeException e) {
+                // The checkpoint stays put; the next refresh retries, skipping what the other chunks folded in.
+                log.warn("Inventory analytics refresh stopped at {} of {} product(s)", from, productIds.size(), e);
+                return folded;
+            }
+        }
+
+        transaction.executeWithoutResult(status -> {
+            AnalyticsCheckpoint state = analyticsCheckpointRepository.findById(CHECKPOINT)
+                    .orElseGet(() -> AnalyticsCheckpoint.builder().name(CHECKPOINT).build());
+            state.setProcessedUpTo(upTo);
+            state.setUpdatedAt(LocalDateTime.now());
+            analyticsCheckpointRepository.save(state);
+        });
+
+        if (folded > 0) {
+            log.info("Inventory analytics: folded {} transaction(s) of {} product(s) up to {}",
+                    folded, productIds.size(), upTo);
+        }
+        return folded;
+    }
+
+    /**
+     * Folds the transactions of some products in (since, upTo] into their analytics rows.
+     *
+     * @return the number of transactions folded in.
+     */
+    private int foldChunk(List<UUID> productIds, LocalDateTime since, LocalDateTime upTo) {
+        Map<UUID, IngredientAnalytics> states = ingredientAnalyticsRepository.findAllForUpdate(productIds).stream()
+                .collect(Collectors.toMap(IngredientAnalytics::getProductId, Function.identity()));
+
+        // Sorted here rather than trusted from the query, as the database orders UUIDs differently from UUID.compareTo.
+        List<LedgerEntry> entries = inventoryTransactionRepository.findLedgerEntries(productIds, since, upTo).stream()
+                .filter(entry -> !isFolded(entry, states.get(entry.productId())))
+                .sorted(LEDGER_ORDER)
+                .toList();
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        LocalDate firstDay = entries.stream().map(entry -> entry.transactionTime().toLocalDate()).min(Comparator.naturalOrder()).get();
+        LocalDate lastDay = entries.stream().map(entry -> entry.transactionTime().toLocalDate()).max(Comparator.naturalOrder()).get();
+        Map<UUID, Map<LocalDate, DailyIngredientUsage>> days = new HashMap<>();
+        for (DailyIngredientUsage day : dailyIngredientUsageRepository.findByProductIdInAndUsageDateBetween(productIds, firstDay, lastDay)) {
+            days.computeIfAbsent(day.getProductId(), id -> new HashMap<>()).put(day.getUsageDate(), day);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (LedgerEntry entry : entries) {
+            IngredientAnalytics state = states.computeIfAbsent(entry.productId(),
+                    id -> IngredientAnalytics.builder().productId(id).onHand(0).build());
+            DailyIngredientUsage day = days.computeIfAbsent(entry.productId(), id -> new HashMap<>())
+                    .computeIfAbsent(entry.transactionTime().toLocalDate(), date -> DailyIngredientUsage.builder()
+                            .productId(entry.productId())
+                            .usageDate(date)
+                            .build());
+            fold(state, day, entry);
+            state.setUpdatedAt(now);
+        }
+
+        ingredientAnalyticsRepository.saveAll(states.values());
+        dailyIngredientUsageRepository.saveAll(days.values().stream().flatMap(byDay -> byDay.values().stream()).toList());
+        return entries.size();
+    }
+
+    /**
+     * Applies one ledger transaction to the running state of its product and to its day.
+     */
+    private static void fold(IngredientAnalytics state, DailyIngredientUsage day, LedgerEntry entry) {
+        int quantity = entry.quantity();
+        switch (entry.transactionType()) {
+            case StockLedger.INCOMING -> {
+                if (entry.unitCost() != null) {
+                    state.setAverageCost(weightedAverage(state.getAverageCost(), state.getOnHand(), entry.unitCost(), quantity));
+                }
+                state.setOnHand(state.getOnHand() + quantity);
+                day.setReceivedQuantity(day.getReceivedQuantity() + quantity);
+            }
+            case StockLedger.OUTGOING -> {
+                state.setOnHand(Math.max(state.getOnHand() - quantity, 0));
+                day.setConsumedQuantity(day.getConsumedQuantity() + quantity);
+            }
+            case StockLedger.ADJUSTMENT -> state.setOnHand(quantity);
+            default -> log.warn("Skipping transaction of unknown type {} for product {}", entry.transactionType(), entry.productId());
+        }
+        state.setLastTransactionTime(entry.transactionTime());
+        state.setLastTransactionId(entry.id());
+    }
+
+    /**
+     * Whether a transaction is at or before the last one folded into its product's analytics row.
+     */
+    private static boolean isFolded(LedgerEntry entry, IngredientAnalytics state) {
+        if (state == null) {
+            return false;
+        }
+        int byTime = entry.transactionTime().compareTo(state.getLastTransactionTime());
+        if (byTime != 0) {
+            return byTime < 0;
+        }
+        // Rows folded before ids were kept took in every transaction at their time.
+        return state.getLastTransactionId() == null || entry.id().compareTo(state.getLastTransactionId()) <= 0;
+    }
+
+    /**
+     * Average cost after receiving {@code quantity} units at {@code unitCost} on top of {@code onHand}
+     * units at {@code averageCost}.
+     */
+    private static BigDecimal weightedAverage(BigDecimal averageCost, int onHand, BigDecimal unitCost, int quantity) {
+        if (averageCost == null || onHand <= 0) {
+            return unitCost.setScale(COST_SCALE, RoundingMode.HALF_UP);
+        }
+        BigDecimal value = averageCost.multiply(BigDecimal.valueOf(onHand))
+                .add(unitCost.multiply(BigDecimal.valueOf(quantity)));
+        return value.divide(BigDecimal.valueOf((long) onHand + quantity), COST_SCALE, RoundingMode.HALF_UP);
+    }
+}
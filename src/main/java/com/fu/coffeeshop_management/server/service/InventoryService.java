@@ -3,15 +3,26 @@ package com.fu.coffeeshop_management.server.service;
 import com.fu.coffeeshop_management.server.dto.*;
 import com.fu.coffeeshop_management.server.entity.*;
 import com.fu.coffeeshop_management.server.repository.*;
+import com.fu.coffeeshop_management.server.util.KeysetCursor;
+import com.fu.coffeeshop_management.server.util.LegacyListing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,16 +35,18 @@ import java.util.stream.Collectors;
 public class InventoryService {
 
     private static final String INGREDIENT_CATEGORY = "Ingredient";
+    private static final int MAX_PAGE_SIZE = 100;
     private static final String STATUS_ACTIVE = "active";
     private static final String STATUS_INACTIVE = "inactive";
-    private static final String TRANSACTION_TYPE_INCOMING = "INCOMING";
-    private static final String TRANSACTION_TYPE_OUTGOING = "OUTGOING";
-    private static final String TRANSACTION_TYPE_ADJUSTMENT = "ADJUSTMENT";
+    private static final Set<String> TRANSACTION_TYPES = Set.of(StockLedger.INCOMING, StockLedger.OUTGOING, StockLedger.ADJUSTMENT);
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final StockRepository stockRepository;
     private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final StockLedger stockLedger;
+    private final LowStockMonitor lowStockMonitor;
 
     /**
      * Add a new ingredient (product with category "Ingredient")
@@ -69,6 +82,7 @@ public class InventoryService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
+        productCatalogCache.invalidate();
 
         // Create initial stock record
         Stock stock = Stock.builder()
@@ -79,6 +93,7 @@ public class InventoryService {
                 .build();
 
         stockRepository.save(stock);
+        lowStockMonitor.stockChanged(savedProduct.getId());
 
         log.info("Ingredient added successfully with ID: {}", savedProduct.getId());
         return mapToIngredientResponse(savedProduct, stock);
@@ -97,6 +112,12 @@ public class InventoryService {
             throw new IllegalStateException("Only managers can update ingredients");
         }
 
+        // Lock the stock row first, so the product below is loaded with its current quantity and
+        // saving the reorder level or unit cannot write back a quantity the stock ledger has changed
+        if (request.getReorderLevel() != null || request.getUnit() != null) {
+            stockRepository.findAllForUpdate(List.of(ingredientId));
+        }
+
         // Find product
         Product product = productRepository.findByIdWithCategoryAndStock(ingredientId)
                 .orElseThrow(() -> new IllegalArgumentException("Ingredient not found with ID: " + ingredientId));
@@ -116,6 +137,7 @@ public class InventoryService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        productCatalogCache.invalidate();
 
         // Update stock reorder level if provided
         Stock stock = product.getStock();
@@ -127,6 +149,7 @@ public class InventoryService {
             stock.setUnit(request.getUnit());
             stockRepository.save(stock);
         }
+        lowStockMonitor.stockChanged(ingredientId);
 
         log.info("Ingredient updated successfully: {}", ingredientId);
         return mapToIngredientResponse(updatedProduct, stock);
@@ -157,6 +180,8 @@ public class InventoryService {
         // Soft delete by setting status to inactive
         product.setStatus(STATUS_INACTIVE);
         productRepository.save(product);
+        productCatalogCache.invalidate();
+        lowStockMonitor.stockChanged(ingredientId);
 
         log.info("Ingredient soft deleted successfully: {}", ingredientId);
     }
@@ -179,37 +204,47 @@ public class InventoryService {
     }
 
     /**
-     * List all active ingredients
+     * List all active ingredients, ordered by name
      */
     @Transactional(readOnly = true)
     public List<IngredientResponse> listIngredients() {
         log.info("Listing all active ingredients");
+        return productRepository.findIngredientRows(STATUS_ACTIVE, Pageable.unpaged()).getContent();
+    }
 
-        List<Product> ingredients = productRepository.findIngredientsByStatus(STATUS_ACTIVE);
-
-        return ingredients.stream()
-                .map(product -> {
-                    Stock stock = stockRepository.findById(product.getId()).orElse(null);
-                    return mapToIngredientResponse(product, stock);
-                })
-                .collect(Collectors.toList());
+    /**
+     * One page of active ingredients with their stock, ordered by name.
+     * Page and stock are read with a single projection query, plus the count query.
+     */
+    @Transactional(readOnly = true)
+    public Page<IngredientResponse> listIngredients(int page, int size) {
+        log.info("Listing active ingredients, page {} size {}", page, size);
+        return productRepository.findIngredientRows(STATUS_ACTIVE, pageRequest(page, size));
     }
 
     /**
-     * Search ingredients by name
+     * Search ingredients by name (accent-insensitive, best match first).
+     * Names are matched in the catalog cache; the matches and their stock are then read in one query.
      */
     @Transactional(readOnly = true)
     public List<IngredientResponse> searchIngredients(String name) {
         log.info("Searching ingredients by name: {}", name);
+        return loadIngredientRows(productCatalogCache.search(null, null, INGREDIENT_CATEGORY, name));
+    }
 
-        List<Product> ingredients = productRepository.searchIngredientsByName(name);
-
-        return ingredients.stream()
-                .map(product -> {
-                    Stock stock = stockRepository.findById(product.getId()).orElse(null);
-                    return mapToIngredientResponse(product, stock);
-                })
-                .collect(Collectors.toList());
+    /**
+     * One page of {@link #searchIngredients(String)}. Ranking and paging happen on the catalog cache,
+     * so only the ingredients on the requested page are read from the database.
+     */
+    @Transactional(readOnly = true)
+    public Page<IngredientResponse> searchIngredients(String name, int page, int size) {
+        log.info("Searching ingredients by name: {}, page {} size {}", name, page, size);
+
+        Pageable pageable = pageRequest(page, size);
+        List<ProductCatalogEntry> matches = productCatalogCache.search(null, null, INGREDIENT_CATEGORY, name);
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(loadIngredientRows(matches.subList(from, to)), pageable, matches.size());
     }
 
     /**
@@ -225,57 +260,35 @@ public class InventoryService {
             throw new IllegalStateException("Only cashiers and managers can add stock");
         }
 
-        // Find product
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + request.getProductId()));
+        StockMovement movement = new StockMovement(request.getProductId(), request.getTransactionType(), request.getQuantity(),
+                null, request.getNotes());
+        StockLedger.Posting posting = stockLedger.apply(List.of(movement), currentUser).get(0);
 
-        // Create inventory transaction
-        InventoryTransaction transaction = new InventoryTransaction();
-        transaction.setProduct(product);
-        transaction.setQuantity(request.getQuantity());
-        transaction.setTransactionType(request.getTransactionType());
-        transaction.setTransactionTime(LocalDateTime.now());
-        transaction.setUser(currentUser);
+        log.info("Stock updated. Product: {}, New: {}", request.getProductId(), posting.stockAfter());
 
-        InventoryTransaction savedTransaction = inventoryTransactionRepository.save(transaction);
+        return mapToStockTransactionResponse(posting);
+    }
 
-        // Update stock levels
-        Stock stock = stockRepository.findById(product.getId())
-                .orElseGet(() -> {
-                    // Create stock if doesn't exist
-                    Stock newStock = Stock.builder()
-                            .productId(product.getId())
-                            .product(product)
-                            .quantityInStock(0)
-                            .reorderLevel(10)
-                            .build();
-                    return stockRepository.save(newStock);
-                });
+    /**
+     * Receive a multi-line delivery: every line is booked as INCOMING in one transaction
+     * Cashier and Manager can perform this
+     */
+    @Transactional
+    public List<StockTransactionResponse> addStockDelivery(StockDeliveryRequest request, User currentUser) {
+        log.info("Receiving delivery of {} item(s) by user: {}", request.getItems().size(), currentUser.getUsername());
 
-        // Update quantity based on transaction type
-        int newQuantity = stock.getQuantityInStock();
-        switch (request.getTransactionType()) {
-            case TRANSACTION_TYPE_INCOMING:
-                newQuantity += request.getQuantity();
-                break;
-            case TRANSACTION_TYPE_OUTGOING:
-                newQuantity -= request.getQuantity();
-                if (newQuantity < 0) {
-                    throw new IllegalStateException("Insufficient stock. Current: " + stock.getQuantityInStock());
-                }
-                break;
-            case TRANSACTION_TYPE_ADJUSTMENT:
-                newQuantity = request.getQuantity();
-                break;
+        if (!hasRole(currentUser, "CASHIER") && !hasRole(currentUser, "MANAGER")) {
+            throw new IllegalStateException("Only cashiers and managers can add stock");
         }
 
-        stock.setQuantityInStock(newQuantity);
-        Stock updatedStock = stockRepository.save(stock);
+        List<StockMovement> movements = request.getItems().stream()
+                .map(item -> new StockMovement(item.getProductId(), StockLedger.INCOMING, item.getQuantity(),
+                        null, request.getNotes()))
+                .toList();
 
-        log.info("Stock updated. Product: {}, Old: {}, New: {}", product.getId(), 
-                 stock.getQuantityInStock(), newQuantity);
-
-        return mapToStockTransactionResponse(savedTransaction, updatedStock.getQuantityInStock());
+        return stockLedger.apply(movements, currentUser).stream()
+                .map(this::mapToStockTransactionResponse)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -290,25 +303,66 @@ public class InventoryService {
     }
 
     /**
-     * Get transaction history for a product
+     * Get every transaction of a product, newest first
+     *
+     * @throws com.fu.coffeeshop_management.server.exception.BadRequestException if more than
+     *         {@link LegacyListing#MAX_ROWS} transactions exist; use {@link #getTransactionHistoryPage} instead.
      */
     @Transactional(readOnly = true)
     public List<StockTransactionResponse> getTransactionHistory(UUID productId) {
         log.info("Fetching transaction history for product: {}", productId);
 
-        List<InventoryTransaction> transactions = inventoryTransactionRepository
-                .findByProductIdOrderByTransactionTimeDesc(productId);
+        return LegacyListing.requireComplete(
+                inventoryTransactionRepository.findHistory(productId, null, null, null, null, null, LegacyListing.probe()),
+                "/api/inventory/transactions/" + productId + "/page");
+    }
 
-        return transactions.stream()
-                .map(transaction -> mapToStockTransactionResponse(transaction, null))
-                .collect(Collectors.toList());
+    /**
+     * One page of a product's transaction history, newest first, optionally filtered by type and time range
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<StockTransactionResponse> getTransactionHistoryPage(UUID productId, String type,
+                                                                         LocalDateTime from, LocalDateTime to,
+                                                                         String cursor, int size) {
+        log.info("Fetching transaction history page for product: {}, type: {}, from: {}, to: {}", productId, type, from, to);
+
+        String transactionType = null;
+        if (type != null && !type.isBlank()) {
+            transactionType = type.trim().toUpperCase(Locale.ROOT);
+            if (!TRANSACTION_TYPES.contains(transactionType)) {
+                throw new IllegalArgumentException("Unknown transaction type: " + type);
+            }
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Time range is empty: " + from + " is after " + to);
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<StockTransactionResponse> rows = inventoryTransactionRepository.findHistory(
+                productId, transactionType, from, to,
+                position != null ? position.timestamp() : null,
+                position != null ? position.id() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        StockTransactionResponse last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return CursorPage.<StockTransactionResponse>builder()
+                .items(rows)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? new KeysetCursor(last.getTransactionTime(), last.getId()).encode() : null)
+                .build();
     }
 
     /**
-     * Get low stock notifications
+     * Get low stock notifications, served from the in-memory low-stock set
      * Manager only
      */
-    @Transactional(readOnly = true)
     public List<LowStockResponse> getLowStockNotifications(User currentUser) {
         log.info("Fetching low stock notifications by user: {}", currentUser.getUsername());
 
@@ -317,31 +371,21 @@ public class InventoryService {
             throw new IllegalStateException("Only managers can view low stock notifications");
         }
 
-        List<Stock> lowStockItems = stockRepository.findLowStockItems();
-
-        return lowStockItems.stream()
-                .map(stock -> {
-                    Product product = stock.getProduct();
-                    
-                    // Only include ingredients
-                    if (product != null && INGREDIENT_CATEGORY.equals(product.getCategory().getName())) {
-                        int quantityNeeded = stock.getReorderLevel() - stock.getQuantityInStock();
-                        BigDecimal estimatedCost = product.getPrice().multiply(new BigDecimal(quantityNeeded));
-
-                        return LowStockResponse.builder()
-                                .productId(product.getId())
-                                .productName(product.getName())
-                                .currentStock(stock.getQuantityInStock())
-                                .reorderLevel(stock.getReorderLevel())
-                                .quantityNeeded(quantityNeeded)
-                                .estimatedCost(estimatedCost)
-                                .status(product.getStatus())
-                                .build();
-                    }
-                    return null;
-                })
-                .filter(response -> response != null)
-                .collect(Collectors.toList());
+        return lowStockMonitor.current();
+    }
+
+    /**
+     * Subscribe to low stock alerts over Server-Sent Events
+     * Manager only
+     */
+    public SseEmitter subscribeLowStock(User currentUser) {
+        log.info("Low stock subscription by user: {}", currentUser.getUsername());
+
+        if (!hasRole(currentUser, "MANAGER")) {
+            throw new IllegalStateException("Only managers can view low stock notifications");
+        }
+
+        return lowStockMonitor.subscribe();
     }
 
     // === Private Helper Methods ===
@@ -375,16 +419,43 @@ public class InventoryService {
                 .build();
     }
 
-    private StockTransactionResponse mapToStockTransactionResponse(InventoryTransaction transaction, Integer stockLevelAfter) {
+    /**
+     * Reads the given ingredients with their stock in one query, keeping the order of the entries.
+     */
+    private List<IngredientResponse> loadIngredientRows(List<ProductCatalogEntry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, IngredientResponse> rows = productRepository
+                .findIngredientRowsByIdIn(entries.stream().map(ProductCatalogEntry::id).toList())
+                .stream()
+                .collect(Collectors.toMap(IngredientResponse::getId, Function.identity()));
+        return entries.stream()
+                .map(entry -> rows.get(entry.id()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static Pageable pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Maps a fresh ledger posting; the product name comes with the posting, so the product is not loaded.
+     */
+    private StockTransactionResponse mapToStockTransactionResponse(StockLedger.Posting posting) {
+        InventoryTransaction transaction = posting.transaction();
         return StockTransactionResponse.builder()
                 .id(transaction.getId())
                 .productId(transaction.getProduct().getId())
-                .productName(transaction.getProduct().getName())
+                .productName(posting.productName())
                 .quantity(transaction.getQuantity())
                 .transactionType(transaction.getTransactionType())
+                .unitCost(transaction.getUnitCost())
+                .note(transaction.getNote())
                 .transactionTime(transaction.getTransactionTime())
                 .userName(transaction.getUser().getUsername())
-                .stockLevelAfter(stockLevelAfter)
+                .stockLevelAfter(posting.stockAfter())
                 .build();
     }
 
@@ -1,7 +1,10 @@
 package com.fu.coffeeshop_management.server.service;
 
+import com.fu.coffeeshop_management.server.dto.JwtMetrics;
 import com.fu.coffeeshop_management.server.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -10,9 +13,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -21,19 +24,84 @@ import java.util.function.Function;
  * - Validation
  * - Claim extraction
  * This is a standard clean-code utility for stateless REST APIs.
+ * <p>
+ * The signing key and parser are built once. Verified claims are kept in a small LRU cache keyed by
+ * the token, so a client repeating the same token skips the HMAC check until the token expires.
  */
 @Service
 public class JwtService {
 
-    private final String jwtSecretKey;
     private final long jwtExpiration;
+    private final SecretKey signInKey;
+    private final JwtParser parser;
+
+    private final int cacheSize;
+    private final Map<String, Claims> verifiedTokens;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+    private final LongAccumulator maxVerifyNanos = new LongAccumulator(Long::max, 0L);
 
     public JwtService(
             @Value("${application.security.jwt.secret-key}") String jwtSecretKey,
-            @Value("${application.security.jwt.expiration}") long jwtExpiration
+            @Value("${application.security.jwt.expiration}") long jwtExpiration,
+            @Value("${application.security.jwt.cache-size:1024}") int cacheSize
     ) {
-        this.jwtSecretKey = jwtSecretKey;
         this.jwtExpiration = jwtExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecretKey));
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+        this.cacheSize = cacheSize;
+        this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > JwtService.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Verifies the token's signature and expiry and returns its claims.
+     * Each distinct token is cryptographically verified once; later calls are answered from the
+     * cache until the token expires.
+     *
+     * @return the claims, or empty if the token is malformed, forged or expired.
+     */
+    public Optional<Claims> verify(String token) {
+        Claims cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(token);
+        }
+        if (cached != null && !isExpired(cached)) {
+            cacheHits.increment();
+            return Optional.of(cached);
+        }
+        cacheMisses.increment();
+        if (cached != null) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.remove(token);
+            }
+            return Optional.empty();
+        }
+
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(token, claims);
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            failures.increment();
+            return Optional.empty();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            verifications.increment();
+            verifyNanos.add(elapsed);
+            maxVerifyNanos.accumulate(elapsed);
+        }
     }
 
     public String extractUsername(String token) {
@@ -41,8 +109,7 @@ public class JwtService {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return verify(token).map(claimsResolver).orElse(null);
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -63,34 +130,44 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return verify(token).map(claims -> isTokenValid(claims, userDetails)).orElse(false);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Checks already verified claims against the user, without parsing the token again.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject()) && !isExpired(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith((javax.crypto.SecretKey) getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public JwtMetrics getMetrics() {
+        long verified = verifications.sum();
+        long hits = cacheHits.sum();
+        long misses = cacheMisses.sum();
+        long lookups = hits + misses;
+        int size;
+        synchronized (verifiedTokens) {
+            size = verifiedTokens.size();
+        }
+        return JwtMetrics.builder()
+                .verifications(verified)
+                .cacheHits(hits)
+                .cacheMisses(misses)
+                .failures(failures.sum())
+                .hitRatio(lookups == 0 ? 0.0 : (double) hits / lookups)
+                .cacheSize(size)
+                .avgVerifyMicros(verified == 0 ? 0.0 : verifyNanos.sum() / 1000.0 / verified)
+                .maxVerifyMicros(maxVerifyNanos.get() / 1000.0)
+                .build();
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
-
 }
@@ -0,0 +1,233 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.LowStockResponse;
+import com.fu.coffeeshop_management.server.entity.Product;
+import com.fu.coffeeshop_management.server.entity.Stock;
+import com.fu.coffeeshop_management.server.repository.StockRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the set of low-stock ingredients in memory and pushes changes to subscribers over
+ * Server-Sent Events.
+ * <p>
+ * Every stock write reports the products it touched through {@link #stockChanged(UUID)}. Once the
+ * transaction commits, a single background thread re-reads those stock rows with one query and
+ * compares each one with its reorder level. When an ingredient drops to or below the level it enters
+ * the set and a {@code low-stock} event is sent; when it is restocked above the level, or stops being
+ * an ingredient, it leaves the set and a {@code restocked} event is sent. Changes to an ingredient
+ * that stays low are sent as {@code low-stock} too. Refreshes run one after another and always read committed data, so the set
+ * cannot be overwritten by an older read. The full set is only read from the database once, on first
+ * use. Each application instance keeps its own set.
+ */
+@Service
+@Slf4j
+public class LowStockMonitor {
+
+    public static final String EVENT_SNAPSHOT = "snapshot";
+    public static final String EVENT_LOW_STOCK = "low-stock";
+    public static final String EVENT_RESTOCKED = "restocked";
+
+    /** Subscribers are expected to reconnect after this long (EventSource does so on its own). */
+    private static final long SUBSCRIPTION_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final StockRepository stockRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<UUID, LowStockResponse> lowStock = new ConcurrentHashMap<>();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final Object lock = new Object();
+    private volatile boolean loaded;
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LowStockMonitor(StockRepository stockRepository, PlatformTransactionManager transactionManager) {
+        this.stockRepository = stockRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Low-stock ingredients, ordered by name.
+     */
+    public List<LowStockResponse> current() {
+        ensureLoaded();
+        return lowStock.values().stream()
+                .sorted(Comparator.comparing(LowStockResponse::getProductName, Comparator.nullsLast(String::compareTo)))
+                .toList();
+    }
+
+    /**
+     * Records that the stock of a product was written. The product is re-checked once the current
+     * transaction commits (immediately when there is none); a rollback leaves the set unchanged.
+     */
+    public void stockChanged(UUID productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submitRefresh(Set.of(productId));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<UUID> pending = (Set<UUID>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<UUID> touched = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, touched);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submitRefresh(Set.copyOf(touched));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LowStockMonitor.this);
+                }
+            });
+            pending = touched;
+        }
+        pending.add(productId);
+    }
+
+    /**
+     * Opens an event stream. The first event is a {@code snapshot} with the current set.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT_MS);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+
+        send(emitter, SseEmitter.event().name(EVENT_SNAPSHOT).data(current()));
+        log.debug("Low-stock subscriber added, {} open", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Keeps idle streams open through proxies that drop silent connections.
+     */
+    @Scheduled(fixedRate = 25_000)
+    void heartbeat() {
+        for (SseEmitter emitter : subscribers) {
+            send(emitter, SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (lock) {
+            if (loaded) {
+                return;
+            }
+            List<Stock> stocks = readOnlyTransaction.execute(status -> stockRepository.findLowStockIngredients());
+            for (Stock stock : stocks) {
+                lowStock.put(stock.getProductId(), toResponse(stock.getProduct(), stock));
+            }
+            loaded = true;
+            log.info("Low-stock monitor loaded with {} ingredient(s)", lowStock.size());
+        }
+    }
+
+    private void submitRefresh(Set<UUID> productIds) {
+        if (!refresher.isShutdown()) {
+            refresher.execute(() -> refresh(productIds));
+        }
+    }
+
+    private void refresh(Set<UUID> productIds) {
+        List<Map.Entry<String, LowStockResponse>> events = new ArrayList<>();
+        try {
+            synchronized (lock) {
+                if (!loaded) {
+                    // The first read of the full set will see these changes.
+                    return;
+                }
+                List<Stock> stocks = readOnlyTransaction.execute(status -> stockRepository.findIngredientStocks(productIds));
+                Set<UUID> found = new HashSet<>();
+                for (Stock stock : stocks) {
+                    found.add(stock.getProductId());
+                    LowStockResponse item = toResponse(stock.getProduct(), stock);
+                    if (isLow(stock)) {
+                        if (!item.equals(lowStock.put(stock.getProductId(), item))) {
+                            events.add(Map.entry(EVENT_LOW_STOCK, item));
+                        }
+                    } else if (lowStock.remove(stock.getProductId()) != null) {
+                        events.add(Map.entry(EVENT_RESTOCKED, item));
+                    }
+                }
+                // Not returned any more (e.g. moved out of the ingredient category): it leaves the set too.
+                for (UUID productId : productIds) {
+                    LowStockResponse removed = found.contains(productId) ? null : lowStock.remove(productId);
+                    if (removed != null) {
+                        events.add(Map.entry(EVENT_RESTOCKED, removed));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh low-stock state for {}", productIds, e);
+            return;
+        }
+
+        for (Map.Entry<String, LowStockResponse> event : events) {
+            log.info("Stock alert {}: {} at {}", event.getKey(), event.getValue().getProductName(),
+                    event.getValue().getCurrentStock());
+            for (SseEmitter emitter : subscribers) {
+                send(emitter, SseEmitter.event().name(event.getKey()).data(event.getValue()));
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static boolean isLow(Stock stock) {
+        return stock.getReorderLevel() != null && stock.getQuantityInStock() <= stock.getReorderLevel();
+    }
+
+    private static LowStockResponse toResponse(Product product, Stock stock) {
+        int reorderLevel = stock.getReorderLevel() != null ? stock.getReorderLevel() : 0;
+        int quantityNeeded = Math.max(reorderLevel - stock.getQuantityInStock(), 0);
+        return LowStockResponse.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .currentStock(stock.getQuantityInStock())
+                .reorderLevel(stock.getReorderLevel())
+                .quantityNeeded(quantityNeeded)
+                .estimatedCost(product.getPrice().multiply(BigDecimal.valueOf(quantityNeeded)))
+                .status(product.getStatus())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdown();
+        subscribers.forEach(SseEmitter::complete);
+    }
+}
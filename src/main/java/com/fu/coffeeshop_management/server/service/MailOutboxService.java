@@ -0,0 +1,246 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.entity.MailOutbox;
+import com.fu.coffeeshop_management.server.repository.MailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transactional outbox for outgoing email.
+ * <p>
+ * {@link #enqueue} only inserts a row in the caller's transaction, so the HTTP request never waits
+ * for SMTP and a message is sent if and only if the business change commits. The dispatcher claims
+ * due messages in batches, delivers them concurrently on virtual threads through the
+ * {@link MailTransport}, and reschedules failures with exponential backoff until
+ * {@code maxAttempts} is reached. It runs on a fixed delay and is also woken right after a commit
+ * that enqueued mail.
+ * <p>
+ * Bodies can carry secrets (temporary passwords), so a message's body is cleared as soon as it is
+ * SENT or FAILED, and finished rows are deleted once they are older than {@code retention}.
+ */
+@Service
+@Slf4j
+public class MailOutboxService {
+
+    static final String PENDING = "PENDING";
+    static final String SENDING = "SENDING";
+    static final String SENT = "SENT";
+    static final String FAILED = "FAILED";
+    static final String REMOVED_BODY = "[removed]";
+
+    private final MailOutboxRepository outboxRepository;
+    private final MailTransport mailTransport;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    /** How long a claimed message is reserved for this dispatcher before another may retry it. */
+    private final Duration claimTimeout;
+    private final Duration retention;
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    /** Set when a wake-up arrives during a pass, so the running pass looks for new mail once more. */
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    public MailOutboxService(MailOutboxRepository outboxRepository,
+                             MailTransport mailTransport,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${application.mail.outbox.batch-size:20}") int batchSize,
+                             @Value("${application.mail.outbox.max-attempts:8}") int maxAttempts,
+                             @Value("${application.mail.outbox.initial-backoff:PT10S}") Duration initialBackoff,
+                             @Value("${application.mail.outbox.max-backoff:PT1H}") Duration maxBackoff,
+                             @Value("${application.mail.outbox.claim-timeout:PT5M}") Duration claimTimeout,
+                             @Value("${application.mail.outbox.retention:P7D}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.mailTransport = mailTransport;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.claimTimeout = claimTimeout;
+        this.retention = retention;
+    }
+
+    /**
+     * Queues an email. Joins the caller's transaction; delivery starts once it commits.
+     */
+    @Transactional
+    public void enqueue(String to, String subject, String body, boolean html) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(MailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .html(html)
+                .status(PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        }
+    }
+
+    /**
+     * Starts a dispatch pass in the background unless one is already running.
+     */
+    public void wakeUp() {
+        if (!senders.isShutdown()) {
+            senders.execute(this::dispatch);
+        }
+    }
+
+    /**
+     * Delivers everything that is due, one batch at a time. Only one pass runs per instance at once.
+     *
+     * @return the number of messages sent.
+     */
+    @Scheduled(fixedDelayString = "${application.mail.outbox.poll-interval:PT30S}",
+            initialDelayString = "${application.mail.outbox.poll-interval:PT30S}")
+    public int dispatch() {
+        if (!dispatching.compareAndSet(false, true)) {
+            rerun.set(true);
+            return 0;
+        }
+        try {
+            int sent = 0;
+            List<MailOutbox> batch;
+            do {
+                batch = claimBatch();
+                sent += deliver(batch);
+            } while (batch.size() == batchSize || rerun.getAndSet(false));
+            return sent;
+        } catch (RuntimeException e) {
+            log.error("Mail outbox dispatch failed", e);
+            return 0;
+        } finally {
+            dispatching.set(false);
+        }
+    }
+
+    /**
+     * Marks the next due messages as SENDING in a short transaction so no other dispatcher picks
+     * them up while they are being delivered.
+     */
+    private List<MailOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<MailOutbox> due = outboxRepository.lockDue(now, PageRequest.of(0, batchSize));
+            for (MailOutbox message : due) {
+                message.setStatus(SENDING);
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(now.plus(claimTimeout));
+            }
+            return outboxRepository.saveAll(due);
+        });
+    }
+
+    private int deliver(List<MailOutbox> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Future<?>> results = new ArrayList<>(batch.size());
+        for (MailOutbox message : batch) {
+            results.add(senders.submit(() -> {
+                mailTransport.send(message.getRecipient(), message.getSubject(), message.getBody(), message.isHtml());
+                return null;
+            }));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int sent = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            MailOutbox message = batch.get(i);
+            try {
+                results.get(i).get();
+                message.setStatus(SENT);
+                message.setSentAt(now);
+                message.setLastError(null);
+                message.setBody(REMOVED_BODY);
+                sent++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reschedule(message, e, now);
+            } catch (Exception e) {
+                reschedule(message, e.getCause() != null ? e.getCause() : e, now);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(batch));
+        return sent;
+    }
+
+    private void reschedule(MailOutbox message, Throwable error, LocalDateTime now) {
+        String reason = error.getClass().getSimpleName() + ": " + error.getMessage();
+        message.setLastError(reason.length() > 1000 ? reason.substring(0, 1000) : reason);
+        if (message.getAttempts() >= maxAttempts) {
+            message.setStatus(FAILED);
+            message.setBody(REMOVED_BODY);
+            log.error("Giving up on mail {} to {} after {} attempts: {}",
+                    message.getId(), message.getRecipient(), message.getAttempts(), reason);
+            return;
+        }
+        message.setStatus(PENDING);
+        message.setNextAttemptAt(now.plus(backoff(message.getAttempts())));
+        log.warn("Mail {} to {} failed (attempt {}), retrying at {}: {}",
+                message.getId(), message.getRecipient(), message.getAttempts(), message.getNextAttemptAt(), reason);
+    }
+
+    /**
+     * Deletes SENT and FAILED messages created more than {@code retention} ago.
+     *
+     * @return the number of messages deleted.
+     */
+    @Scheduled(fixedDelayString = "${application.mail.outbox.purge-interval:PT1H}",
+            initialDelayString = "${application.mail.outbox.purge-interval:PT1H}")
+    public int purgeFinished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteFinishedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} finished mail(s) from the outbox", deleted);
+        }
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * initialBackoff * 2^(attempts - 1), capped at maxBackoff.
+     */
+    Duration backoff(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = initialBackoff.multipliedBy(1L << shift);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdown();
+    }
+}
@@ -0,0 +1,10 @@
+package com.fu.coffeeshop_management.server.service;
+
+/**
+ * Delivers one email. The outbox dispatcher calls it off the request thread and retries on any
+ * exception; replace the bean (e.g. with a recording stub in tests) to change how mail is sent.
+ */
+public interface MailTransport {
+
+    void send(String to, String subject, String body, boolean html) throws Exception;
+}
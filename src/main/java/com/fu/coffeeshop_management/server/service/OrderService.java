@@ -2,15 +2,19 @@ package com.fu.coffeeshop_management.server.service;
 
 import com.fu.coffeeshop_management.server.dto.*;
 import com.fu.coffeeshop_management.server.entity.*;
+import com.fu.coffeeshop_management.server.exception.BadRequestException;
 import com.fu.coffeeshop_management.server.repository.*;
-import jakarta.persistence.criteria.Predicate;
+import com.fu.coffeeshop_management.server.util.KeysetCursor;
+import com.fu.coffeeshop_management.server.util.LegacyListing;
+import com.fu.coffeeshop_management.server.util.MoneyUtils;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -20,12 +24,15 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 public class OrderService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired private OrderRepository orderRepository;
     @Autowired private TableInfoRepository tableInfoRepository;
     @Autowired private ProductRepository productRepository;
     @Autowired private UserRepository userRepository;
     @Autowired private OrderDetailRepository orderDetailRepository;
     @Autowired private TableOrderRepository tableOrderRepository;
+    @Autowired private ProductCatalogCache productCatalogCache;
 
     @Transactional
     public void createOrderFromDTO(OrderRequestDTO request, UUID userId) {
@@ -40,33 +47,28 @@ public class OrderService {
         newOrder.setOrderDetails(new HashSet<>());
         newOrder.setTableOrders(new HashSet<>());
 
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        Map<UUID, ProductCatalogEntry> products = loadProducts(request.getItems().stream()
+                .map(item -> UUID.fromString(item.getProductId()))
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
 
         for (OrderItemRequestDTO itemDto : request.getItems()) {
-            Product product = productRepository.findById(UUID.fromString(itemDto.getProductId()))
-                    .orElseThrow(() -> new RuntimeException("Không tìm thấy sản phẩm: " + itemDto.getProductId()));
-
-            BigDecimal itemQuantity = new BigDecimal(itemDto.getQuantity());
-            BigDecimal itemTotal = product.getPrice().multiply(itemQuantity);
-            totalAmount = totalAmount.add(itemTotal);
+            ProductCatalogEntry product = products.get(UUID.fromString(itemDto.getProductId()));
 
             OrderDetail detail = new OrderDetail();
-            detail.setProduct(product);
+            detail.setProduct(productRepository.getReferenceById(product.id()));
             detail.setQuantity(itemDto.getQuantity());
-            detail.setPrice(product.getPrice());
+            detail.setPrice(product.price());
             detail.setOrder(newOrder);
 
             newOrder.getOrderDetails().add(detail);
         }
 
-        newOrder.setTotalPrice(totalAmount.doubleValue());
-
-        for (String tableId : request.getTableIds()) {
-            TableInfo table = tableInfoRepository.findById(UUID.fromString(tableId))
-                    .orElseThrow(() -> new RuntimeException("Không tìm thấy bàn: " + tableId));
+        newOrder.setTotalPrice(MoneyUtils.sumLines(newOrder.getOrderDetails(), OrderDetail::getPrice, OrderDetail::getQuantity));
 
+        // Tables are managed entities: the status change is flushed together with the
+        // order inserts as a single JDBC batch instead of one save() per table.
+        for (TableInfo table : loadTables(request.getTableIds())) {
             table.setStatus("OCCUPIED");
-            tableInfoRepository.save(table);
 
             TableOrder tableOrderLink = new TableOrder();
             tableOrderLink.setOrder(newOrder);
@@ -82,7 +84,7 @@ public class OrderService {
     public OrderResponseDTO updateOrder(String orderId, OrderRequestDTO request, UUID userId) {
         UUID orderUUID = UUID.fromString(orderId);
 
-        Order orderToUpdate = orderRepository.findById(orderUUID)
+        Order orderToUpdate = orderRepository.findForScreenById(orderUUID)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng với ID: " + orderId));
 
         orderToUpdate.setNote(request.getNote());
@@ -100,69 +102,259 @@ public class OrderService {
         return convertToDto(savedOrder);
     }
 
+    /**
+     * Applies a partial update to an order. Only the fields present in the request are changed;
+     * items listed in the request are upserted by product ID (a quantity of 0 removes the line)
+     * and every other line is left untouched.
+     */
+    @Transactional
+    public OrderResponseDTO patchOrder(String orderId, OrderPatchRequestDTO request, UUID userId) {
+        UUID orderUUID = UUID.fromString(orderId);
+
+        Order orderToUpdate = orderRepository.findForScreenById(orderUUID)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng với ID: " + orderId));
+
+        if (request.getNote() != null) {
+            orderToUpdate.setNote(request.getNote());
+        }
+        if (request.getStatus() != null && !request.getStatus().isBlank()) {
+            orderToUpdate.setStatus(request.getStatus());
+        }
+
+        User staff = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với ID: " + userId));
+        orderToUpdate.setStaff(staff);
+        if (request.getItems() != null) {
+            applyItemChanges(orderToUpdate, request.getItems(), false);
+        }
+
+        Order savedOrder = orderRepository.save(orderToUpdate);
+
+        return convertToDto(savedOrder);
+    }
+
     private void updateOrderDetails(Order order, List<OrderItemRequestDTO> itemRequests) {
-        orderDetailRepository.deleteAllInBatch(order.getOrderDetails());
-        Set<OrderDetail> newDetails = new HashSet<>();
-        BigDecimal newTotalAmount = BigDecimal.ZERO;
+        applyItemChanges(order, itemRequests, true);
+    }
 
+    /**
+     * Diffs the requested items against the existing order lines by product ID and issues only
+     * the inserts, updates and deletes that are needed. Existing lines keep their ID and the price
+     * captured when they were ordered, and the order total is adjusted by the delta of each change.
+     *
+     * @param removeUnlisted whether lines whose product is absent from the request are removed
+     *                       (full replacement) or kept (patch).
+     */
+    private void applyItemChanges(Order order, List<OrderItemRequestDTO> itemRequests, boolean removeUnlisted) {
+        Map<UUID, Integer> requested = new LinkedHashMap<>();
         for (OrderItemRequestDTO itemDto : itemRequests) {
-            Product product = productRepository.findById(UUID.fromString(itemDto.getProductId()))
-                    .orElseThrow(() -> new RuntimeException("Không tìm thấy sản phẩm: " + itemDto.getProductId()));
+            requested.merge(UUID.fromString(itemDto.getProductId()), itemDto.getQuantity(), Integer::sum);
+        }
 
-            OrderDetail newDetail = new OrderDetail();
-            newDetail.setProduct(product);
-            newDetail.setQuantity(itemDto.getQuantity());
-            newDetail.setPrice(product.getPrice());
-            newDetail.setOrder(order);
+        long totalUnits = MoneyUtils.toMinorUnits(order.getTotalPrice());
 
-            newDetails.add(newDetail);
+        Map<UUID, OrderDetail> existingByProduct = new HashMap<>();
+        List<OrderDetail> removedDetails = new ArrayList<>();
 
-            BigDecimal itemQuantity = new BigDecimal(itemDto.getQuantity());
-            BigDecimal itemTotal = product.getPrice().multiply(itemQuantity);
-            newTotalAmount = newTotalAmount.add(itemTotal);
+        for (OrderDetail detail : order.getOrderDetails()) {
+            UUID productId = detail.getProduct().getId();
+            Integer quantity = requested.get(productId);
+            boolean unlisted = quantity == null && removeUnlisted;
+            boolean cleared = quantity != null && quantity <= 0;
+
+            if (unlisted || cleared || existingByProduct.containsKey(productId)) {
+                removedDetails.add(detail);
+                totalUnits -= MoneyUtils.lineUnits(detail.getPrice(), detail.getQuantity());
+            } else {
+                existingByProduct.put(productId, detail);
+            }
         }
 
-        order.setOrderDetails(newDetails);
-        order.setTotalPrice(newTotalAmount.doubleValue());
+        List<UUID> addedProductIds = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> entry : requested.entrySet()) {
+            int quantity = entry.getValue();
+            if (quantity <= 0) {
+                continue;
+            }
+            OrderDetail detail = existingByProduct.get(entry.getKey());
+            if (detail == null) {
+                addedProductIds.add(entry.getKey());
+            } else if (detail.getQuantity() != quantity) {
+                totalUnits += MoneyUtils.lineUnits(detail.getPrice(), quantity - detail.getQuantity());
+                detail.setQuantity(quantity);
+            }
+        }
+
+        if (!removedDetails.isEmpty()) {
+            removedDetails.forEach(order.getOrderDetails()::remove);
+            orderDetailRepository.deleteAll(removedDetails);
+        }
+
+        if (!addedProductIds.isEmpty()) {
+            Map<UUID, ProductCatalogEntry> products = loadProducts(addedProductIds);
+            for (UUID productId : addedProductIds) {
+                ProductCatalogEntry product = products.get(productId);
+                int quantity = requested.get(productId);
+
+                OrderDetail newDetail = new OrderDetail();
+                newDetail.setProduct(productRepository.getReferenceById(productId));
+                newDetail.setQuantity(quantity);
+                newDetail.setPrice(product.price());
+                newDetail.setOrder(order);
+
+                order.getOrderDetails().add(newDetail);
+                totalUnits += MoneyUtils.lineUnits(product.price(), quantity);
+            }
+        }
+
+        order.setTotalPrice(MoneyUtils.fromMinorUnits(totalUnits));
     }
 
+    /**
+     * Resolves all given products from the catalog cache; order lines then reference them by ID
+     * without loading the entity.
+     *
+     * @throws RuntimeException if any of the referenced products does not exist.
+     */
+    private Map<UUID, ProductCatalogEntry> loadProducts(Collection<UUID> productIds) {
+        Map<UUID, ProductCatalogEntry> products = productCatalogCache.findAllById(productIds);
+
+        for (UUID productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Không tìm thấy sản phẩm: " + productId);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Resolves every table referenced by the request with a single query.
+     *
+     * @throws RuntimeException if any of the referenced tables does not exist.
+     */
+    private List<TableInfo> loadTables(List<String> tableIds) {
+        Set<UUID> ids = tableIds.stream()
+                .map(UUID::fromString)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        List<TableInfo> tables = tableInfoRepository.findAllById(ids);
+        if (tables.size() != ids.size()) {
+            Set<UUID> found = tables.stream().map(TableInfo::getId).collect(Collectors.toSet());
+            UUID missing = ids.stream().filter(id -> !found.contains(id)).findFirst().orElse(null);
+            throw new RuntimeException("Không tìm thấy bàn: " + missing);
+        }
+        return tables;
+    }
+
+    @Transactional
     public OrderResponseDTO getOrderById(String orderId) {
         UUID orderUUID = UUID.fromString(orderId);
-        Order order = orderRepository.findById(orderUUID)
+        Order order = orderRepository.findForScreenById(orderUUID)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng với ID: " + orderId));
         return convertToDto(order);
     }
 
+    /**
+     * Legacy unpaged listing, kept for existing clients: every matching order, newest first, through
+     * the same keyset queries as {@link #getOrderPage}.
+     *
+     * @throws BadRequestException if more than {@link LegacyListing#MAX_ROWS} orders match.
+     */
+    @Transactional
     public List<OrderResponseDTO> getOrders(Instant fromDate, Instant toDate, String status, String tableId, String staffId) {
-        Specification<Order> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
+        List<OrderSummaryRow> rows = LegacyListing.requireComplete(
+                findOrderRows(fromDate, toDate, status, tableId, staffId, null, LegacyListing.probe()),
+                "/api/orders/page");
+        return toResponses(rows);
+    }
 
-            if (fromDate != null) {
-                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), LocalDateTime.ofInstant(fromDate, ZoneOffset.UTC)));
-            }
-            if (toDate != null) {
-                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), LocalDateTime.ofInstant(toDate, ZoneOffset.UTC)));
-            }
-            if (status != null && !status.isBlank()) {
-                predicates.add(cb.equal(root.get("status"), status));
-            }
-            if (staffId != null && !staffId.isBlank()) {
-                predicates.add(cb.equal(root.get("staff").get("id"), UUID.fromString(staffId)));
-            }
-            if (tableId != null && !tableId.isBlank()) {
-                predicates.add(cb.equal(root.join("tableOrders").get("tableInfo").get("id"), UUID.fromString(tableId)));
-                query.distinct(true);
-            }
+    /**
+     * Keyset-paginated order listing. One page costs three queries (headers, tables, items)
+     * regardless of how many orders match the filters.
+     *
+     * @param cursor opaque cursor from the previous page, or null for the first page.
+     */
+    @Transactional
+    public CursorPage<OrderResponseDTO> getOrderPage(Instant fromDate, Instant toDate, String status, String tableId,
+                                                     String staffId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        KeysetCursor position = KeysetCursor.decode(cursor);
+
+        List<OrderSummaryRow> rows = findOrderRows(fromDate, toDate, status, tableId, staffId, position,
+                PageRequest.of(0, pageSize + 1));
 
-            query.orderBy(cb.desc(root.get("createdAt")));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        if (rows.isEmpty()) {
+            return CursorPage.<OrderResponseDTO>builder().items(List.of()).hasMore(false).build();
+        }
 
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+        OrderSummaryRow last = rows.get(rows.size() - 1);
+        return CursorPage.<OrderResponseDTO>builder()
+                .items(toResponses(rows))
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? new KeysetCursor(last.createdAt(), last.id()).encode() : null)
+                .build();
+    }
+
+    private List<OrderSummaryRow> findOrderRows(Instant fromDate, Instant toDate, String status, String tableId,
+                                                String staffId, KeysetCursor position, Pageable pageable) {
+        return orderRepository.findOrderPage(
+                fromDate != null ? LocalDateTime.ofInstant(fromDate, ZoneOffset.UTC) : null,
+                toDate != null ? LocalDateTime.ofInstant(toDate, ZoneOffset.UTC) : null,
+                status != null && !status.isBlank() ? status : null,
+                staffId != null && !staffId.isBlank() ? UUID.fromString(staffId) : null,
+                tableId != null && !tableId.isBlank() ? UUID.fromString(tableId) : null,
+                position != null ? position.timestamp() : null,
+                position != null ? position.id() : null,
+                pageable);
+    }
 
-        List<Order> orders = orderRepository.findAll(spec);
-        return orders.stream()
-                .map(this::convertToDto)
+    /**
+     * Order headers with their tables and lines, loaded for all of them in two more queries.
+     */
+    private List<OrderResponseDTO> toResponses(List<OrderSummaryRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> orderIds = rows.stream().map(OrderSummaryRow::id).toList();
+        Map<UUID, List<OrderTableRow>> tablesByOrder = orderRepository.findTableRowsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderTableRow::orderId));
+        Map<UUID, List<OrderItemRow>> itemsByOrder = orderRepository.findItemRowsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId));
+
+        return rows.stream()
+                .map(row -> convertRowToDto(row,
+                        tablesByOrder.getOrDefault(row.id(), List.of()),
+                        itemsByOrder.getOrDefault(row.id(), List.of())))
+                .toList();
+    }
+
+    private OrderResponseDTO convertRowToDto(OrderSummaryRow row, List<OrderTableRow> tables, List<OrderItemRow> items) {
+        List<TableInfoDTO> tableInfoDTOs = tables.stream()
+                .map(table -> new TableInfoDTO(table.tableId(), table.tableName()))
                 .collect(Collectors.toList());
+
+        return OrderResponseDTO.builder()
+                .id(row.id().toString())
+                .orderDate(row.createdAt().toInstant(ZoneOffset.UTC))
+                .totalAmount(row.totalPrice())
+                .status(row.status())
+                .staffName(row.staffName() != null ? row.staffName() : "N/A")
+                .note(row.note())
+                .tableNames(tableInfoDTOs.stream().map(TableInfoDTO::getName).collect(Collectors.toList()))
+                .tables(tableInfoDTOs)
+                .items(items.stream()
+                        .map(item -> OrderItemResponseDTO.builder()
+                                .productId(item.productId().toString())
+                                .productName(item.productName())
+                                .quantity(item.quantity())
+                                .price(item.price())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
     }
 
     private OrderResponseDTO convertToDto(Order order) {
@@ -194,11 +386,16 @@ public class OrderService {
 
     private OrderItemResponseDTO convertDetailToDto(OrderDetail detail) {
         Product product = detail.getProduct();
+        // Lines added in this request hold an uninitialized reference; take the name from the catalog
+        // instead of loading the product.
+        String productName = Hibernate.isInitialized(product)
+                ? product.getName()
+                : productCatalogCache.findById(product.getId()).map(ProductCatalogEntry::name).orElseGet(product::getName);
         return OrderItemResponseDTO.builder()
                 .productId(product.getId().toString())
-                .productName(product.getName())
+                .productName(productName)
                 .quantity(detail.getQuantity())
-                .price(detail.getPrice().doubleValue())
+                .price(detail.getPrice())
                 .build();
     }
 }
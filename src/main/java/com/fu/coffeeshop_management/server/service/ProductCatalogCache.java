@@ -0,0 +1,210 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.CatalogCacheStats;
+import com.fu.coffeeshop_management.server.dto.ProductCatalogEntry;
+import com.fu.coffeeshop_management.server.repository.ProductRepository;
+import com.fu.coffeeshop_management.server.util.NameSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through, in-memory snapshot of the product catalog.
+ * <p>
+ * The whole catalog is loaded with one projection query into an immutable snapshot indexed by ID,
+ * by category and by a trigram index over the names, and served from memory until a product write
+ * invalidates it. Writers call {@link #invalidate()}; inside a transaction the snapshot is only
+ * dropped after commit, so a concurrent reader can never re-cache data that is about to change.
+ * The next read rebuilds it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalogCache {
+
+    private final ProductRepository productRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    /** Bumped on every invalidation; a rebuild that raced with a write is not published. */
+    private final AtomicLong version = new AtomicLong();
+    private final Object rebuildLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * All products, ordered by name.
+     */
+    public List<ProductCatalogEntry> findAll() {
+        return current().entries();
+    }
+
+    public Optional<ProductCatalogEntry> findById(UUID id) {
+        return Optional.ofNullable(findAllById(List.of(id)).get(id));
+    }
+
+    /**
+     * Resolves the given IDs from the snapshot. IDs not in the snapshot (e.g. a product created on
+     * another node) are looked up in the database with a single query; unknown IDs are simply absent
+     * from the result.
+     */
+    public Map<UUID, ProductCatalogEntry> findAllById(Collection<UUID> ids) {
+        Snapshot current = current();
+        Map<UUID, ProductCatalogEntry> result = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            ProductCatalogEntry entry = current.byId().get(id);
+            if (entry != null) {
+                result.put(id, entry);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            misses.increment();
+            List<ProductCatalogEntry> loaded = productRepository.findCatalogEntriesByIdIn(missing);
+            loaded.forEach(entry -> result.put(entry.id(), entry));
+            if (!loaded.isEmpty()) {
+                // The snapshot is stale; rebuild it on the next read.
+                evict();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Filters the catalog in memory. Every argument is optional. The keyword is matched as a
+     * case- and accent-insensitive substring of the name through the trigram index, and results are
+     * then ranked by match quality (see {@link NameSearchIndex}); without a keyword they are ordered
+     * by name.
+     */
+    public List<ProductCatalogEntry> search(String status, UUID categoryId, String categoryName, String keyword) {
+        Snapshot current = current();
+
+        List<ProductCatalogEntry> candidates;
+        if (keyword != null && !keyword.isBlank()) {
+            candidates = current.nameIndex().search(keyword).stream()
+                    .map(current.entries()::get)
+                    .toList();
+        } else if (categoryId != null) {
+            candidates = current.byCategoryId().getOrDefault(categoryId, List.of());
+        } else if (categoryName != null) {
+            candidates = current.byCategoryName().getOrDefault(categoryName.toLowerCase(Locale.ROOT), List.of());
+        } else {
+            candidates = current.entries();
+        }
+
+        List<ProductCatalogEntry> result = new ArrayList<>();
+        for (ProductCatalogEntry entry : candidates) {
+            if (status != null && !status.equalsIgnoreCase(entry.status())) {
+                continue;
+            }
+            if (categoryId != null && !categoryId.equals(entry.categoryId())) {
+                continue;
+            }
+            if (categoryName != null && !categoryName.equalsIgnoreCase(entry.categoryName())) {
+                continue;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the snapshot once the current transaction commits (immediately when there is none).
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        } else {
+            evict();
+        }
+    }
+
+    public CatalogCacheStats stats() {
+        Snapshot current = snapshot.get();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return CatalogCacheStats.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .rebuilds(rebuilds.sum())
+                .invalidations(invalidations.sum())
+                .hitRatio(total == 0 ? 0.0 : (double) hitCount / total)
+                .size(current != null ? current.entries().size() : 0)
+                .builtAt(current != null ? current.builtAt() : null)
+                .build();
+    }
+
+    private void evict() {
+        version.incrementAndGet();
+        snapshot.set(null);
+        invalidations.increment();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        synchronized (rebuildLock) {
+            current = snapshot.get();
+            if (current != null) {
+                hits.increment();
+                return current;
+            }
+            misses.increment();
+            long startVersion = version.get();
+            current = Snapshot.of(productRepository.findCatalogEntries());
+            rebuilds.increment();
+            if (version.get() == startVersion) {
+                snapshot.compareAndSet(null, current);
+            }
+            log.debug("Product catalog snapshot rebuilt with {} entries", current.entries().size());
+            return current;
+        }
+    }
+
+    private record Snapshot(List<ProductCatalogEntry> entries,
+                            Map<UUID, ProductCatalogEntry> byId,
+                            Map<UUID, List<ProductCatalogEntry>> byCategoryId,
+                            Map<String, List<ProductCatalogEntry>> byCategoryName,
+                            NameSearchIndex nameIndex,
+                            LocalDateTime builtAt) {
+
+        static Snapshot of(List<ProductCatalogEntry> entries) {
+            Map<UUID, ProductCatalogEntry> byId = new HashMap<>();
+            for (ProductCatalogEntry entry : entries) {
+                byId.put(entry.id(), entry);
+            }
+            Map<UUID, List<ProductCatalogEntry>> byCategoryId = entries.stream()
+                    .collect(Collectors.groupingBy(ProductCatalogEntry::categoryId, Collectors.toUnmodifiableList()));
+            Map<String, List<ProductCatalogEntry>> byCategoryName = entries.stream()
+                    .filter(entry -> entry.categoryName() != null)
+                    .collect(Collectors.groupingBy(entry -> entry.categoryName().toLowerCase(Locale.ROOT),
+                            Collectors.toUnmodifiableList()));
+            return new Snapshot(List.copyOf(entries), Map.copyOf(byId), Map.copyOf(byCategoryId),
+                    Map.copyOf(byCategoryName),
+                    NameSearchIndex.of(entries.stream().map(ProductCatalogEntry::name).toList()),
+                    LocalDateTime.now());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.fu.coffeeshop_management.server.service;
 
+import com.fu.coffeeshop_management.server.dto.CatalogCacheStats;
+import com.fu.coffeeshop_management.server.dto.ProductCatalogEntry;
 import com.fu.coffeeshop_management.server.dto.ProductCreateRequest;
 import com.fu.coffeeshop_management.server.dto.ProductDTO;
 import com.fu.coffeeshop_management.server.dto.ProductResponse;
@@ -9,7 +11,6 @@ import com.fu.coffeeshop_management.server.entity.Product;
 import com.fu.coffeeshop_management.server.repository.CategoryRepository;
 import com.fu.coffeeshop_management.server.repository.ProductRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,33 +24,28 @@ import java.util.stream.Collectors;
 public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final LowStockMonitor lowStockMonitor;
 
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                          ProductCatalogCache productCatalogCache, LowStockMonitor lowStockMonitor) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.lowStockMonitor = lowStockMonitor;
     }
 
     /**
-     * Retrieves a list of products with optional filters for category and status.
+     * Retrieves a list of products with optional filters for category and keyword.
+     * Served from the in-memory catalog; no database round trip once the catalog is warm.
      *
      * @param categoryName The name of the category to filter by (optional).
-     * @param status       The status of the products to filter by (optional).
+     * @param keyword      A case-insensitive part of the product name (optional).
      * @return A list of {@link ProductResponse} objects matching the filters.
      */
     public List<ProductResponse> getAllWithFilters(String categoryName, String keyword) {
-        List<Product> products;
-        if (categoryName != null && keyword != null) {
-            products = productRepository.findByCategoryNameAndKeyword(categoryName, keyword);
-        } else if (categoryName != null) {
-            products = productRepository.findByCategoryId(categoryRepository.findByName(categoryName).get().getId());
-        } else if (keyword != null) {
-            products = productRepository.findByKeyword(keyword);
-        } else {
-            products = productRepository.findAll();
-        }
-
-        return products.stream()
-                .map(this::mapToProductResponse)
+        return productCatalogCache.search(null, null, categoryName, keyword).stream()
+                .map(ProductService::mapToProductResponse)
                 .collect(Collectors.toList());
     }
 
@@ -73,6 +69,7 @@ public class ProductService {
                 .category(category)
                 .build();
         productRepository.save(productEntity);
+        productCatalogCache.invalidate();
         return mapToProductResponse(productEntity);
     }
 
@@ -105,6 +102,9 @@ public class ProductService {
         }
 
         productRepository.save(existingProduct);
+        productCatalogCache.invalidate();
+        // A change of category can take the product in or out of the low-stock set.
+        lowStockMonitor.stockChanged(productId);
         return mapToProductResponse(existingProduct);
     }
 
@@ -114,7 +114,7 @@ public class ProductService {
      * @param product The product entity to map.
      * @return The mapped {@link ProductResponse} DTO.
      */
-    private ProductResponse mapToProductResponse(Product product) {
+    private static ProductResponse mapToProductResponse(Product product) {
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -126,8 +126,27 @@ public class ProductService {
                 .build();
     }
 
+    private static ProductResponse mapToProductResponse(ProductCatalogEntry entry) {
+        return ProductResponse.builder()
+                .id(entry.id())
+                .name(entry.name())
+                .description(entry.description())
+                .price(entry.price())
+                .imageLink(entry.imageLink())
+                .status(entry.status())
+                .categoryName(entry.categoryName())
+                .build();
+    }
+
+    private static ProductDTO mapToProductDTO(ProductCatalogEntry entry) {
+        ProductDTO dto = new ProductDTO(entry.id(), entry.name(), entry.description(), entry.price(),
+                entry.imageLink(), entry.status(), entry.categoryId());
+        dto.setCategoryName(entry.categoryName());
+        return dto;
+    }
+
     public ProductResponse getProduct(UUID productId) {
-        Product product = productRepository.findById(productId)
+        ProductCatalogEntry product = productCatalogCache.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         return mapToProductResponse(product);
     }
@@ -137,16 +156,21 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         product.setStatus(status ? "active" : "inactive");
         productRepository.save(product);
+        productCatalogCache.invalidate();
     }
 
-    @Transactional(readOnly = true)
     public List<ProductDTO> list(String status, String categoryIdStr, String keyword) {
         String s = normalize(status);
         String kw = normalize(keyword);
         UUID catId = parseUUIDOrNull(categoryIdStr);
 
-        List<Product> products = productRepository.listProducts(s, catId, kw);
-        return products.stream().map(ProductDTO::from).toList();
+        return productCatalogCache.search(s, catId, null, kw).stream()
+                .map(ProductService::mapToProductDTO)
+                .toList();
+    }
+
+    public CatalogCacheStats getCatalogCacheStats() {
+        return productCatalogCache.stats();
     }
 
     private static String normalize(String s) {
@@ -0,0 +1,321 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.*;
+import com.fu.coffeeshop_management.server.entity.*;
+import com.fu.coffeeshop_management.server.repository.ProductRepository;
+import com.fu.coffeeshop_management.server.repository.PurchaseOrderDetailRepository;
+import com.fu.coffeeshop_management.server.repository.PurchaseOrderRepository;
+import com.fu.coffeeshop_management.server.repository.SupplierRepository;
+import com.fu.coffeeshop_management.server.util.MoneyUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Service layer for purchasing: suppliers, purchase orders and receiving deliveries into stock
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PurchasingService {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RECEIVED = "RECEIVED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    private static final int MAX_PAGE_SIZE = 100;
+    /** Orders created from the low-stock list restock each ingredient to this multiple of its reorder level. */
+    private static final int RESTOCK_TARGET_MULTIPLIER = 2;
+
+    private final SupplierRepository supplierRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderDetailRepository purchaseOrderDetailRepository;
+    private final ProductRepository productRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final LowStockMonitor lowStockMonitor;
+    private final StockLedger stockLedger;
+
+    // === Suppliers ===
+
+    /**
+     * Add a supplier
+     * Manager only
+     */
+    @Transactional
+    public SupplierResponse createSupplier(SupplierRequest request, User currentUser) {
+        requireManager(currentUser, "Only managers can add suppliers");
+
+        Supplier supplier = new Supplier();
+        supplier.setName(request.getName());
+        supplier.setContactPerson(request.getContactPerson());
+        supplier.setPhone(request.getPhone());
+        supplier.setAddress(request.getAddress());
+        Supplier saved = supplierRepository.save(supplier);
+
+        log.info("Supplier created: {} ({})", saved.getName(), saved.getId());
+        return mapToSupplierResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SupplierResponse> listSuppliers() {
+        return supplierRepository.findAll(Sort.by("name")).stream()
+                .map(this::mapToSupplierResponse)
+                .collect(Collectors.toList());
+    }
+
+    // === Purchase orders ===
+
+    /**
+     * Create a purchase order
+     * Manager only
+     */
+    @Transactional
+    public PurchaseOrderResponse createPurchaseOrder(PurchaseOrderRequest request, User currentUser) {
+        requireManager(currentUser, "Only managers can create purchase orders");
+
+        Set<UUID> productIds = new HashSet<>();
+        for (PurchaseOrderItemRequest item : request.getItems()) {
+            if (!productIds.add(item.getProductId())) {
+                throw new IllegalArgumentException("Product listed twice: " + item.getProductId());
+            }
+        }
+        Map<UUID, ProductCatalogEntry> products = productCatalogCache.findAllById(productIds);
+
+        List<PurchaseOrderItemRequest> items = request.getItems().stream()
+                .map(item -> {
+                    ProductCatalogEntry product = products.get(item.getProductId());
+                    if (product == null) {
+                        throw new IllegalArgumentException("Product not found with ID: " + item.getProductId());
+                    }
+                    BigDecimal costPrice = item.getCostPrice() != null ? item.getCostPrice() : product.price();
+                    return new PurchaseOrderItemRequest(item.getProductId(), item.getQuantity(), costPrice);
+                })
+                .toList();
+
+        return placeOrder(request.getSupplierId(), items, currentUser);
+    }
+
+    /**
+     * Create a purchase order for every ingredient that is currently low on stock, enough to bring
+     * each one back to twice its reorder level, at the ingredient's price
+     * Manager only
+     */
+    @Transactional
+    public PurchaseOrderResponse createPurchaseOrderFromLowStock(UUID supplierId, User currentUser) {
+        requireManager(currentUser, "Only managers can create purchase orders");
+
+        List<LowStockResponse> lowStock = lowStockMonitor.current();
+        Map<UUID, ProductCatalogEntry> products = productCatalogCache.findAllById(
+                lowStock.stream().map(LowStockResponse::getProductId).toList());
+        List<PurchaseOrderItemRequest> items = new ArrayList<>();
+        for (LowStockResponse ingredient : lowStock) {
+            ProductCatalogEntry product = products.get(ingredient.getProductId());
+            if (product == null) {
+                continue;
+            }
+            int target = ingredient.getReorderLevel() * RESTOCK_TARGET_MULTIPLIER;
+            int quantity = Math.max(target - ingredient.getCurrentStock(), 1);
+            items.add(new PurchaseOrderItemRequest(ingredient.getProductId(), quantity, product.price()));
+        }
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("No ingredients are low on stock");
+        }
+
+        return placeOrder(supplierId, items, currentUser);
+    }
+
+    /**
+     * Get a purchase order with its lines
+     */
+    @Transactional(readOnly = true)
+    public PurchaseOrderResponse getPurchaseOrder(UUID purchaseOrderId) {
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findDetailById(purchaseOrderId)
+                .orElseThrow(() -> new IllegalArgumentException("Purchase order not found with ID: " + purchaseOrderId));
+        return mapToPurchaseOrderResponse(purchaseOrder, purchaseOrderDetailRepository.findByPurchaseOrderId(purchaseOrderId));
+    }
+
+    /**
+     * List purchase orders, newest first, optionally by status (without lines)
+     */
+    @Transactional(readOnly = true)
+    public Page<PurchaseOrderResponse> listPurchaseOrders(String status, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)),
+                Sort.by(Sort.Direction.DESC, "orderDate"));
+        Page<PurchaseOrder> orders = status == null || status.isBlank()
+                ? purchaseOrderRepository.findAllBy(pageable)
+                : purchaseOrderRepository.findByStatus(status.toUpperCase(Locale.ROOT), pageable);
+        return orders.map(order -> mapToPurchaseOrderResponse(order, null));
+    }
+
+    /**
+     * Receive a purchase order: every delivered line is posted to stock as an INCOMING transaction
+     * carrying its unit cost, all in one transaction and one stock ledger call
+     * Cashier and Manager can perform this
+     */
+    @Transactional
+    public PurchaseOrderResponse receivePurchaseOrder(UUID purchaseOrderId, ReceivePurchaseOrderRequest request,
+                                                      User currentUser) {
+        if (!hasRole(currentUser, "CASHIER") && !hasRole(currentUser, "MANAGER")) {
+            throw new IllegalStateException("Only cashiers and managers can receive purchase orders");
+        }
+
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findForUpdateById(purchaseOrderId)
+                .orElseThrow(() -> new IllegalArgumentException("Purchase order not found with ID: " + purchaseOrderId));
+        if (!STATUS_PENDING.equals(purchaseOrder.getStatus())) {
+            throw new IllegalArgumentException("Purchase order is " + purchaseOrder.getStatus() + " and cannot be received");
+        }
+
+        List<PurchaseOrderDetail> details = purchaseOrderDetailRepository.findByPurchaseOrderId(purchaseOrderId);
+        Map<UUID, PurchaseOrderDetail> byProduct = new HashMap<>();
+        for (PurchaseOrderDetail detail : details) {
+            detail.setReceivedQuantity(detail.getQuantity());
+            byProduct.put(detail.getProduct().getId(), detail);
+        }
+        if (request != null && request.getItems() != null) {
+            for (ReceiveItemRequest item : request.getItems()) {
+                PurchaseOrderDetail detail = byProduct.get(item.getProductId());
+                if (detail == null) {
+                    throw new IllegalArgumentException("Product " + item.getProductId() + " is not on this purchase order");
+                }
+                detail.setReceivedQuantity(item.getReceivedQuantity());
+                if (item.getCostPrice() != null) {
+                    detail.setCostPrice(item.getCostPrice());
+                }
+            }
+        }
+
+        List<StockMovement> movements = details.stream()
+                .filter(detail -> detail.getReceivedQuantity() > 0)
+                .map(detail -> new StockMovement(detail.getProduct().getId(), StockLedger.INCOMING,
+                        detail.getReceivedQuantity(), detail.getCostPrice()))
+                .toList();
+        stockLedger.apply(movements, currentUser);
+
+        purchaseOrder.setStatus(STATUS_RECEIVED);
+        purchaseOrder.setReceivedAt(LocalDateTime.now());
+        purchaseOrder.setTotalAmount(MoneyUtils.sumLines(details, this::costOf, PurchaseOrderDetail::getReceivedQuantity));
+
+        log.info("Purchase order {} received: {} line(s) posted to stock", purchaseOrderId, movements.size());
+        return mapToPurchaseOrderResponse(purchaseOrder, details);
+    }
+
+    /**
+     * Cancel a pending purchase order
+     * Manager only
+     */
+    @Transactional
+    public PurchaseOrderResponse cancelPurchaseOrder(UUID purchaseOrderId, User currentUser) {
+        requireManager(currentUser, "Only managers can cancel purchase orders");
+
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findForUpdateById(purchaseOrderId)
+                .orElseThrow(() -> new IllegalArgumentException("Purchase order not found with ID: " + purchaseOrderId));
+        if (!STATUS_PENDING.equals(purchaseOrder.getStatus())) {
+            throw new IllegalArgumentException("Purchase order is " + purchaseOrder.getStatus() + " and cannot be cancelled");
+        }
+        purchaseOrder.setStatus(STATUS_CANCELLED);
+
+        log.info("Purchase order {} cancelled", purchaseOrderId);
+        return mapToPurchaseOrderResponse(purchaseOrder, null);
+    }
+
+    // === Private Helper Methods ===
+
+    private PurchaseOrderResponse placeOrder(UUID supplierId, List<PurchaseOrderItemRequest> items, User currentUser) {
+        Supplier supplier = supplierRepository.findById(supplierId)
+                .orElseThrow(() -> new IllegalArgumentException("Supplier not found with ID: " + supplierId));
+
+        PurchaseOrder purchaseOrder = new PurchaseOrder();
+        purchaseOrder.setSupplier(supplier);
+        purchaseOrder.setOrderDate(LocalDateTime.now());
+        purchaseOrder.setStatus(STATUS_PENDING);
+        purchaseOrder.setCreatedBy(currentUser);
+        purchaseOrder.setTotalAmount(MoneyUtils.sumLines(items, PurchaseOrderItemRequest::getCostPrice,
+                PurchaseOrderItemRequest::getQuantity));
+        PurchaseOrder saved = purchaseOrderRepository.save(purchaseOrder);
+
+        List<PurchaseOrderDetail> details = items.stream()
+                .map(item -> {
+                    PurchaseOrderDetail detail = new PurchaseOrderDetail();
+                    detail.setPurchaseOrder(saved);
+                    detail.setProduct(productRepository.getReferenceById(item.getProductId()));
+                    detail.setQuantity(item.getQuantity());
+                    detail.setCostPrice(item.getCostPrice());
+                    return detail;
+                })
+                .toList();
+        purchaseOrderDetailRepository.saveAll(details);
+
+        log.info("Purchase order {} created with {} line(s) for supplier {}", saved.getId(), details.size(), supplier.getName());
+        return mapToPurchaseOrderResponse(saved, details);
+    }
+
+    private BigDecimal costOf(PurchaseOrderDetail detail) {
+        return detail.getCostPrice() != null ? detail.getCostPrice() : BigDecimal.ZERO;
+    }
+
+    private PurchaseOrderResponse mapToPurchaseOrderResponse(PurchaseOrder purchaseOrder, List<PurchaseOrderDetail> details) {
+        List<PurchaseOrderItemResponse> items = null;
+        if (details != null) {
+            Map<UUID, ProductCatalogEntry> products = productCatalogCache.findAllById(
+                    details.stream().map(detail -> detail.getProduct().getId()).toList());
+            items = details.stream()
+                    .map(detail -> {
+                        ProductCatalogEntry product = products.get(detail.getProduct().getId());
+                        int quantity = detail.getReceivedQuantity() != null ? detail.getReceivedQuantity() : detail.getQuantity();
+                        return PurchaseOrderItemResponse.builder()
+                                .productId(detail.getProduct().getId())
+                                .productName(product != null ? product.name() : null)
+                                .quantity(detail.getQuantity())
+                                .receivedQuantity(detail.getReceivedQuantity())
+                                .costPrice(detail.getCostPrice())
+                                .lineTotal(MoneyUtils.lineTotal(costOf(detail), quantity))
+                                .build();
+                    })
+                    .collect(Collectors.toList());
+        }
+
+        Supplier supplier = purchaseOrder.getSupplier();
+        User createdBy = purchaseOrder.getCreatedBy();
+        return PurchaseOrderResponse.builder()
+                .id(purchaseOrder.getId())
+                .supplierId(supplier.getId())
+                .supplierName(supplier.getName())
+                .orderDate(purchaseOrder.getOrderDate())
+                .status(purchaseOrder.getStatus())
+                .totalAmount(purchaseOrder.getTotalAmount())
+                .createdBy(createdBy != null ? createdBy.getFullname() : null)
+                .receivedAt(purchaseOrder.getReceivedAt())
+                .items(items)
+                .build();
+    }
+
+    private SupplierResponse mapToSupplierResponse(Supplier supplier) {
+        return SupplierResponse.builder()
+                .id(supplier.getId())
+                .name(supplier.getName())
+                .contactPerson(supplier.getContactPerson())
+                .phone(supplier.getPhone())
+                .address(supplier.getAddress())
+                .build();
+    }
+
+    private void requireManager(User user, String message) {
+        if (!hasRole(user, "MANAGER")) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private boolean hasRole(User user, String roleName) {
+        return user.getRole() != null && user.getRole().getName().equals(roleName);
+    }
+}
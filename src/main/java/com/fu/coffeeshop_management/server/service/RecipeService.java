@@ -0,0 +1,139 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.RecipeItemRequest;
+import com.fu.coffeeshop_management.server.dto.RecipeItemResponse;
+import com.fu.coffeeshop_management.server.dto.RecipeLine;
+import com.fu.coffeeshop_management.server.dto.RecipeRequest;
+import com.fu.coffeeshop_management.server.entity.*;
+import com.fu.coffeeshop_management.server.repository.ProductRepository;
+import com.fu.coffeeshop_management.server.repository.RecipeItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service layer for product recipes (bill of materials)
+ * Links sellable products to the ingredients they consume and books that consumption when orders are billed
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeService {
+
+    private static final String INGREDIENT_CATEGORY = "Ingredient";
+
+    private final RecipeItemRepository recipeItemRepository;
+    private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+
+    /**
+     * Get the recipe of a product
+     */
+    @Transactional(readOnly = true)
+    public List<RecipeItemResponse> getRecipe(UUID productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new IllegalArgumentException("Product not found with ID: " + productId);
+        }
+        return recipeItemRepository.findByProductId(productId).stream()
+                .map(this::mapToRecipeItemResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Replace the recipe of a product; an empty list removes it
+     * Manager only
+     */
+    @Transactional
+    public List<RecipeItemResponse> replaceRecipe(UUID productId, RecipeRequest request, User currentUser) {
+        log.info("Replacing recipe of product: {} by user: {}", productId, currentUser.getUsername());
+
+        if (!hasRole(currentUser, "MANAGER")) {
+            throw new IllegalStateException("Only managers can edit recipes");
+        }
+
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+        if (INGREDIENT_CATEGORY.equals(product.getCategory().getName())) {
+            throw new IllegalArgumentException("An ingredient cannot have a recipe");
+        }
+
+        Set<UUID> ingredientIds = new HashSet<>();
+        for (RecipeItemRequest item : request.getItems()) {
+            if (!ingredientIds.add(item.getIngredientId())) {
+                throw new IllegalArgumentException("Ingredient listed twice: " + item.getIngredientId());
+            }
+        }
+        Map<UUID, Product> ingredients = productRepository.findAllById(ingredientIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (UUID ingredientId : ingredientIds) {
+            Product ingredient = ingredients.get(ingredientId);
+            if (ingredient == null) {
+                throw new IllegalArgumentException("Ingredient not found with ID: " + ingredientId);
+            }
+            if (!INGREDIENT_CATEGORY.equals(ingredient.getCategory().getName())) {
+                throw new IllegalArgumentException("Product is not an ingredient: " + ingredient.getName());
+            }
+        }
+
+        recipeItemRepository.deleteByProductId(productId);
+        recipeItemRepository.saveAll(request.getItems().stream()
+                .map(item -> RecipeItem.builder()
+                        .product(product)
+                        .ingredient(ingredients.get(item.getIngredientId()))
+                        .quantity(item.getQuantity())
+                        .build())
+                .toList());
+
+        log.info("Recipe of product {} now has {} ingredient(s)", productId, request.getItems().size());
+        return getRecipe(productId);
+    }
+
+    /**
+     * Books the ingredients consumed by an order: the order lines are expanded through the recipes
+     * (one query), summed per ingredient and applied to stock as one batch of OUTGOING movements.
+     * Joins the caller's transaction, so the consumption commits or rolls back with the bill.
+     */
+    @Transactional
+    public void consumeIngredients(Order order) {
+        Map<UUID, Integer> soldByProduct = new HashMap<>();
+        for (OrderDetail detail : order.getOrderDetails()) {
+            soldByProduct.merge(detail.getProduct().getId(), detail.getQuantity(), Integer::sum);
+        }
+        if (soldByProduct.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Integer> consumed = new HashMap<>();
+        for (RecipeLine line : recipeItemRepository.findLinesByProductIdIn(soldByProduct.keySet())) {
+            int quantity = Math.multiplyExact(line.quantity(), soldByProduct.get(line.productId()));
+            consumed.merge(line.ingredientId(), quantity, Math::addExact);
+        }
+        if (consumed.isEmpty()) {
+            return;
+        }
+
+        stockLedger.consume(consumed, order.getStaff());
+        log.info("Order {} consumed {} ingredient(s)", order.getId(), consumed.size());
+    }
+
+    private RecipeItemResponse mapToRecipeItemResponse(RecipeItem item) {
+        Product ingredient = item.getIngredient();
+        Stock stock = ingredient.getStock();
+        return RecipeItemResponse.builder()
+                .ingredientId(ingredient.getId())
+                .ingredientName(ingredient.getName())
+                .quantity(item.getQuantity())
+                .unit(stock != null ? stock.getUnit() : null)
+                .quantityInStock(stock != null ? stock.getQuantityInStock() : null)
+                .build();
+    }
+
+    private boolean hasRole(User user, String roleName) {
+        return user.getRole() != null && user.getRole().getName().equals(roleName);
+    }
+}
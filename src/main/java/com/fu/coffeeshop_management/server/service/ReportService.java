@@ -1,29 +1,44 @@
 package com.fu.coffeeshop_management.server.service;
 
 import com.fu.coffeeshop_management.server.dto.*;
-import com.fu.coffeeshop_management.server.repository.BillRepository;
+import com.fu.coffeeshop_management.server.entity.DailyRevenueRollup;
+import com.fu.coffeeshop_management.server.entity.IngredientAnalytics;
+import com.fu.coffeeshop_management.server.repository.DailyIngredientUsageRepository;
+import com.fu.coffeeshop_management.server.repository.IngredientAnalyticsRepository;
 import com.fu.coffeeshop_management.server.repository.OrderDetailRepository;
 import com.fu.coffeeshop_management.server.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
 import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
-    @Autowired
-    private BillRepository billRepository;
+    private static final int ITEMS_PER_PERIOD = 3;
+
+    private static final int SHORT_WINDOW_DAYS = 7;
+    private static final int LONG_WINDOW_DAYS = 30;
+
+    private static final Comparator<ItemReportDetailDTO> TOP_ITEMS_ORDER =
+            Comparator.comparing(ItemReportDetailDTO::getTotalUnit).reversed()
+                    .thenComparing(ItemReportDetailDTO::getItemName);
+
+    private static final Comparator<ItemReportDetailDTO> BOTTOM_ITEMS_ORDER =
+            Comparator.comparing(ItemReportDetailDTO::getTotalUnit)
+                    .thenComparing(ItemReportDetailDTO::getItemName);
 
     @Autowired
     private OrderDetailRepository orderDetailRepository;
@@ -31,50 +46,41 @@ public class ReportService {
     @Autowired
     private ProductRepository productRepository;
 
-    public RevenueReportDTO getRevenueReport(LocalDateTime startDate, LocalDateTime endDate, String filterBy) {
+    @Autowired
+    private RevenueRollupService revenueRollupService;
 
-        List<Object[]> rawData;
-        String filter = (filterBy == null) ? "DAY" : filterBy.toUpperCase();
+    @Autowired
+    private InventoryAnalyticsService inventoryAnalyticsService;
 
-        switch (filter) {
-            case "MONTH":
-                rawData = billRepository.getRevenueReportByMonthFromBills(startDate, endDate);
-                break;
-            case "WEEK":
-                rawData = billRepository.getRevenueReportByWeekFromBills(startDate, endDate);
-                break;
-            case "DAY":
-            default:
-                rawData = billRepository.getRevenueReportByDayFromBills(startDate, endDate);
-                break;
-        }
+    @Autowired
+    private IngredientAnalyticsRepository ingredientAnalyticsRepository;
 
-        if (rawData == null) {
-            rawData = Collections.emptyList();
-        }
+    @Autowired
+    private DailyIngredientUsageRepository dailyIngredientUsageRepository;
 
-        List<RevenueByTimeDTO> details = rawData.stream()
-                .map(row -> {
-                    String timeLabel = "";
-                    BigDecimal revenue = BigDecimal.ZERO;
-                    Long bills = 0L;
-
-                    if ("MONTH".equals(filter)) {
-                        timeLabel = row[0] + "-" + String.format("%02d", row[1]);
-                        revenue = (row[2] instanceof Number) ? new BigDecimal(row[2].toString()) : BigDecimal.ZERO;
-                        bills = (row[3] instanceof Number) ? ((Number) row[3]).longValue() : 0L;
-                    } else if ("WEEK".equals(filter)) {
-                        timeLabel = row[0].toString();
-                        revenue = (row[1] instanceof Number) ? new BigDecimal(row[1].toString()) : BigDecimal.ZERO;
-                        bills = (row[2] instanceof Number) ? ((Number) row[2]).longValue() : 0L;
-                    } else {
-                        timeLabel = row[0].toString();
-                        revenue = (row[1] instanceof Number) ? new BigDecimal(row[1].toString()) : BigDecimal.ZERO;
-                        bills = (row[2] instanceof Number) ? ((Number) row[2]).longValue() : 0L;
-                    }
-                    return new RevenueByTimeDTO(timeLabel, revenue, bills);
-                })
-                .collect(Collectors.toList());
+    /**
+     * Revenue per day, ISO week (label {@code yyyyww}) or month (label {@code yyyy-MM}), summed from
+     * the daily revenue rollup. The range is applied at day granularity: every day touched by
+     * [startDate, endDate] is included in full.
+     */
+    public RevenueReportDTO getRevenueReport(LocalDateTime startDate, LocalDateTime endDate, String filterBy) {
+        String filter = (filterBy == null) ? "DAY" : filterBy.toUpperCase();
+
+        List<DailyRevenueRollup> days = revenueRollupService.findDays(startDate.toLocalDate(), endDate.toLocalDate());
+
+        Map<String, RevenueByTimeDTO> periods = new TreeMap<>();
+        for (DailyRevenueRollup day : days) {
+            String timeLabel = switch (filter) {
+                case "MONTH" -> day.getRevenueDate().getYear() + "-" + String.format("%02d", day.getRevenueDate().getMonthValue());
+                case "WEEK" -> String.valueOf(day.getRevenueDate().get(IsoFields.WEEK_BASED_YEAR) * 100
+                        + day.getRevenueDate().get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                default -> day.getRevenueDate().toString();
+            };
+            RevenueByTimeDTO period = periods.computeIfAbsent(timeLabel, label -> new RevenueByTimeDTO(label, BigDecimal.ZERO, 0L));
+            period.setTotalRevenue(period.getTotalRevenue().add(day.getTotalRevenue()));
+            period.setBillCount(period.getBillCount() + day.getBillCount());
+        }
+        List<RevenueByTimeDTO> details = new ArrayList<>(periods.values());
 
         BigDecimal totalRevenue = details.stream()
                 .map(RevenueByTimeDTO::getTotalRevenue)
@@ -87,23 +93,51 @@ public class ReportService {
         return new RevenueReportDTO(totalRevenue, totalBills, details);
     }
 
+    /**
+     * Top and bottom three items per period. Sales for the whole range are read with one grouped
+     * query (per day and product), folded into the periods in memory and ranked with bounded heaps.
+     */
     public List<PeriodItemReportDTO> getItemReport(LocalDateTime dateFrom, LocalDateTime dateTo, String filterBy) {
 
-        List<PeriodItemReportDTO> fullReport = new ArrayList<>();
+        List<ReportPeriod> periods = buildPeriods(dateFrom.toLocalDate(), dateTo.toLocalDate(), filterBy);
+        if (periods.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        LocalDate start = dateFrom.toLocalDate();
-        LocalDate end = dateTo.toLocalDate();
+        NavigableMap<LocalDate, ReportPeriod> periodsByStart = new TreeMap<>();
+        periods.forEach(period -> periodsByStart.put(period.start(), period));
 
-        if ("DAY".equalsIgnoreCase(filterBy)) {
-            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+        List<Object[]> rows = orderDetailRepository.findDailyItemSales(
+                periods.get(0).start().atStartOfDay(),
+                periods.get(periods.size() - 1).end().atTime(LocalTime.MAX));
 
-                LocalDateTime periodStart = date.atStartOfDay();
-                LocalDateTime periodEnd = date.atTime(LocalTime.MAX);
+        for (Object[] row : rows) {
+            LocalDate day = (LocalDate) row[0];
+            Map.Entry<LocalDate, ReportPeriod> entry = periodsByStart.floorEntry(day);
+            if (entry == null || day.isAfter(entry.getValue().end())) {
+                continue;
+            }
+            entry.getValue().add((String) row[1], ((Number) row[2]).longValue(), (BigDecimal) row[3]);
+        }
 
-                PeriodItemReportDTO dailyReport = generateReportForPeriod(periodStart, periodEnd);
-                dailyReport.setPeriodLabel(date.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        return periods.stream()
+                .map(period -> new PeriodItemReportDTO(
+                        period.label(),
+                        selectItems(period.items(), TOP_ITEMS_ORDER, ITEMS_PER_PERIOD),
+                        selectItems(period.items(), BOTTOM_ITEMS_ORDER, ITEMS_PER_PERIOD)))
+                .collect(Collectors.toList());
+    }
 
-                fullReport.add(dailyReport);
+    /**
+     * Splits [start, end] into the report periods: single days, 7-day windows starting at
+     * {@code start}, or calendar months (the first month starts on its 1st).
+     */
+    private List<ReportPeriod> buildPeriods(LocalDate start, LocalDate end, String filterBy) {
+        List<ReportPeriod> periods = new ArrayList<>();
+
+        if ("DAY".equalsIgnoreCase(filterBy)) {
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                periods.add(new ReportPeriod(date.format(DateTimeFormatter.ISO_LOCAL_DATE), date, date));
             }
         }
         else if ("WEEK".equalsIgnoreCase(filterBy)) {
@@ -115,17 +149,11 @@ public class ReportService {
                     periodEnd = end;
                 }
 
-                PeriodItemReportDTO weeklyReport = generateReportForPeriod(
-                        periodStart.atStartOfDay(),
-                        periodEnd.atTime(LocalTime.MAX)
-                );
                 int year = periodStart.getYear();
                 int weekNumber = periodStart.get(WeekFields.ISO.weekOfWeekBasedYear());
                 String weekLabel = String.format("%d%02d", year, weekNumber);
 
-                weeklyReport.setPeriodLabel(weekLabel);
-
-                fullReport.add(weeklyReport);
+                periods.add(new ReportPeriod(weekLabel, periodStart, periodEnd));
                 periodStart = periodEnd.plusDays(1);
             }
         }
@@ -133,47 +161,52 @@ public class ReportService {
             LocalDate currentMonth = start.withDayOfMonth(1);
 
             while (!currentMonth.isAfter(end)) {
-                LocalDate periodStart = (currentMonth.isBefore(start.withDayOfMonth(1))) ? start : currentMonth;
-
                 LocalDate periodEnd = currentMonth.with(TemporalAdjusters.lastDayOfMonth());
                 if (periodEnd.isAfter(end)) {
                     periodEnd = end;
                 }
 
-                PeriodItemReportDTO monthlyReport = generateReportForPeriod(
-                        periodStart.atStartOfDay(),
-                        periodEnd.atTime(LocalTime.MAX)
-                );
-                monthlyReport.setPeriodLabel(periodStart.format(DateTimeFormatter.ofPattern("MM-yyyy")));
-                fullReport.add(monthlyReport);
-
+                periods.add(new ReportPeriod(currentMonth.format(DateTimeFormatter.ofPattern("MM-yyyy")), currentMonth, periodEnd));
                 currentMonth = currentMonth.plusMonths(1);
             }
         }
 
-        return fullReport;
+        return periods;
     }
 
-    private PeriodItemReportDTO generateReportForPeriod(LocalDateTime periodStart, LocalDateTime periodEnd) {
-
-        List<Object[]> topData = orderDetailRepository.findTopSellingItems(periodStart, periodEnd);
+    /**
+     * Keeps the first {@code limit} items in the given order using a heap of at most
+     * {@code limit + 1} entries, instead of sorting the whole list.
+     */
+    private static List<ItemReportDetailDTO> selectItems(Collection<ItemReportDetailDTO> items,
+                                                         Comparator<ItemReportDetailDTO> order, int limit) {
+        PriorityQueue<ItemReportDetailDTO> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        for (ItemReportDetailDTO item : items) {
+            heap.offer(item);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<ItemReportDetailDTO> selected = new ArrayList<>(heap);
+        selected.sort(order);
+        return selected;
+    }
 
-        List<Object[]> bottomData = orderDetailRepository.findBottomSellingItems(periodStart, periodEnd);
+    private record ReportPeriod(String label, LocalDate start, LocalDate end, Map<String, ItemReportDetailDTO> totals) {
 
-        List<ItemReportDetailDTO> topItems = convertToItemDTO(topData);
-        List<ItemReportDetailDTO> bottomItems = convertToItemDTO(bottomData);
+        ReportPeriod(String label, LocalDate start, LocalDate end) {
+            this(label, start, end, new HashMap<>());
+        }
 
-        return new PeriodItemReportDTO(null, topItems, bottomItems);
-    }
+        void add(String itemName, long units, BigDecimal revenue) {
+            ItemReportDetailDTO item = totals.computeIfAbsent(itemName, name -> new ItemReportDetailDTO(name, 0L, BigDecimal.ZERO));
+            item.setTotalUnit(item.getTotalUnit() + units);
+            item.setTotalRevenue(item.getTotalRevenue().add(revenue));
+        }
 
-    private List<ItemReportDetailDTO> convertToItemDTO(List<Object[]> rawData) {
-        return rawData.stream()
-                .map(row -> new ItemReportDetailDTO(
-                        (String) row[0],
-                        (Long) row[1],
-                        (BigDecimal) row[2]
-                ))
-                .collect(Collectors.toList());
+        Collection<ItemReportDetailDTO> items() {
+            return totals.values();
+        }
     }
 
     public StockReportDTO getStockReport() {
@@ -182,4 +215,69 @@ public class ReportService {
         Long lowStockItems = productRepository.countLowStockIngredients();
         return new StockReportDTO(totalItems, lowStockItems, details);
     }
+
+    /**
+     * Stock valuation and consumption velocity per active ingredient, as of the last scheduled fold of
+     * the ledger ({@link InventoryAnalyticsService#refresh()}). The report only reads, in four queries:
+     * the checkpoint, ingredients with their stock, their analytics rows, and consumption summed over
+     * the 7- and 30-day windows (today included).
+     */
+    public InventoryAnalyticsReportDTO getInventoryAnalytics() {
+        LocalDateTime asOf = inventoryAnalyticsService.foldedUpTo();
+
+        List<IngredientResponse> ingredients = productRepository.findIngredientRows("active", Pageable.unpaged()).getContent();
+        Map<UUID, IngredientAnalytics> analytics = ingredientAnalyticsRepository.findAllById(
+                        ingredients.stream().map(IngredientResponse::getId).toList()).stream()
+                .collect(Collectors.toMap(IngredientAnalytics::getProductId, Function.identity()));
+        LocalDate today = LocalDate.now();
+        Map<UUID, IngredientConsumption> consumption = dailyIngredientUsageRepository.sumConsumption(
+                        today.minusDays(SHORT_WINDOW_DAYS - 1), today.minusDays(LONG_WINDOW_DAYS - 1)).stream()
+                .collect(Collectors.toMap(IngredientConsumption::productId, Function.identity()));
+
+        BigDecimal totalStockValue = BigDecimal.ZERO;
+        List<InventoryAnalyticsItemDTO> details = new ArrayList<>();
+        for (IngredientResponse ingredient : ingredients) {
+            IngredientAnalytics state = analytics.get(ingredient.getId());
+            IngredientConsumption used = consumption.getOrDefault(ingredient.getId(),
+                    new IngredientConsumption(ingredient.getId(), 0L, 0L));
+            int stock = ingredient.getQuantityInStock() != null ? ingredient.getQuantityInStock() : 0;
+
+            BigDecimal averageCost = state != null ? state.getAverageCost() : null;
+            BigDecimal stockValue = averageCost != null
+                    ? averageCost.multiply(BigDecimal.valueOf(stock)).setScale(2, RoundingMode.HALF_UP)
+                    : null;
+            if (stockValue != null) {
+                totalStockValue = totalStockValue.add(stockValue);
+            }
+
+            BigDecimal shortVelocity = velocity(used.shortWindow(), SHORT_WINDOW_DAYS);
+            BigDecimal longVelocity = velocity(used.longWindow(), LONG_WINDOW_DAYS);
+            BigDecimal coverVelocity = shortVelocity.signum() > 0 ? shortVelocity : longVelocity;
+            BigDecimal daysOfCover = coverVelocity.signum() > 0
+                    ? BigDecimal.valueOf(stock).divide(coverVelocity, 1, RoundingMode.HALF_UP)
+                    : null;
+
+            details.add(InventoryAnalyticsItemDTO.builder()
+                    .productId(ingredient.getId())
+                    .itemName(ingredient.getName())
+                    .unit(ingredient.getUnit())
+                    .stockQuantity(ingredient.getQuantityInStock())
+                    .reorderLevel(ingredient.getReorderLevel())
+                    .averageCost(averageCost)
+                    .stockValue(stockValue)
+                    .consumedLast7Days(used.shortWindow())
+                    .consumedLast30Days(used.longWindow())
+                    .dailyVelocity7Days(shortVelocity)
+                    .dailyVelocity30Days(longVelocity)
+                    .daysOfCover(daysOfCover)
+                    .lastTransactionTime(state != null ? state.getLastTransactionTime() : null)
+                    .build());
+        }
+
+        return new InventoryAnalyticsReportDTO(asOf, totalStockValue, details);
+    }
+
+    private static BigDecimal velocity(long consumed, int days) {
+        return BigDecimal.valueOf(consumed).divide(BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP);
+    }
 }
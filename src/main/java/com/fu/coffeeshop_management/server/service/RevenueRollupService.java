@@ -0,0 +1,119 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.entity.AnalyticsCheckpoint;
+import com.fu.coffeeshop_management.server.entity.Bill;
+import com.fu.coffeeshop_management.server.entity.DailyRevenueRollup;
+import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.exception.BadRequestException;
+import com.fu.coffeeshop_management.server.repository.AnalyticsCheckpointRepository;
+import com.fu.coffeeshop_management.server.repository.BillRepository;
+import com.fu.coffeeshop_management.server.repository.DailyRevenueRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Maintains the daily revenue rollup that backs the revenue report.
+ * Paid bills are added one at a time as payments are confirmed; {@link #rebuild} recomputes a range
+ * of days from the bill table (backfill, or repair after manual data fixes).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueRollupService {
+
+    static final String BACKFILL_CHECKPOINT = "revenue_rollup_backfill";
+
+    private final DailyRevenueRollupRepository rollupRepository;
+    private final BillRepository billRepository;
+    private final AnalyticsCheckpointRepository checkpointRepository;
+
+    /**
+     * Adds a bill that has just been paid to the rollup of the day it was issued.
+     * Runs in the caller's transaction, so the rollup commits or rolls back with the payment.
+     */
+    @Transactional
+    public void recordPaidBill(Bill bill) {
+        rollupRepository.addPaidBill(bill.getIssuedTime().toLocalDate(), bill.getFinalAmount(), LocalDateTime.now());
+    }
+
+    /**
+     * Recomputes the rollup for the given days (inclusive), on a manager's request. A missing bound
+     * defaults to the first bill ever issued / today, so {@code rebuild(user, null, null)} rebuilds everything.
+     *
+     * @return the number of days that have revenue in the range.
+     * @throws IllegalStateException if the user is not a manager.
+     */
+    @Transactional
+    public int rebuild(User currentUser, LocalDate from, LocalDate to) {
+        if (currentUser == null || currentUser.getRole() == null || !"MANAGER".equals(currentUser.getRole().getName())) {
+            throw new IllegalStateException("Only managers can rebuild the revenue rollup");
+        }
+        log.info("Revenue rollup rebuild for {}..{} requested by {}", from, to, currentUser.getEmail());
+        return rebuild(from, to);
+    }
+
+    /**
+     * Recomputes the rollup for the given days (inclusive) without a caller check, for the startup
+     * backfill. A missing bound defaults to the first bill ever issued / today.
+     *
+     * @return the number of days that have revenue in the range.
+     */
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from == null) {
+            LocalDateTime firstIssued = billRepository.findFirstIssuedTime();
+            if (firstIssued == null) {
+                rollupRepository.deleteAllInBatch();
+                return 0;
+            }
+            from = firstIssued.toLocalDate();
+        }
+        if (to == null) {
+            to = LocalDate.now();
+        }
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Rebuild range is empty: " + from + " is after " + to);
+        }
+
+        rollupRepository.deleteRange(from, to);
+        int days = rollupRepository.insertFromBills(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), LocalDateTime.now());
+        log.info("Rebuilt daily revenue rollup for {}..{}: {} day(s) with revenue", from, to, days);
+        return days;
+    }
+
+    /**
+     * Fills the rollup from the bill table the first time the application starts with it, then
+     * records that in a checkpoint so later startups skip even the check. A rollup that already has
+     * rows (filled before the checkpoint existed) is only marked as done.
+     *
+     * @return whether the bill table was scanned.
+     */
+    @Transactional
+    public boolean backfillOnce() {
+        if (checkpointRepository.existsById(BACKFILL_CHECKPOINT)) {
+            return false;
+        }
+        boolean scan = rollupRepository.count() == 0;
+        if (scan) {
+            rebuild(null, null);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        checkpointRepository.save(AnalyticsCheckpoint.builder()
+                .name(BACKFILL_CHECKPOINT)
+                .processedUpTo(now)
+                .updatedAt(now)
+                .build());
+        return scan;
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyRevenueRollup> findDays(LocalDate from, LocalDate to) {
+        return rollupRepository.findByRevenueDateBetweenOrderByRevenueDateAsc(from, to);
+    }
+}
@@ -1,39 +1,54 @@
 package com.fu.coffeeshop_management.server.service;
 
 import com.fu.coffeeshop_management.server.dto.*;
+import com.fu.coffeeshop_management.server.entity.AnalyticsCheckpoint;
 import com.fu.coffeeshop_management.server.entity.CashTransaction;
 import com.fu.coffeeshop_management.server.entity.Shift;
 import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.repository.AnalyticsCheckpointRepository;
 import com.fu.coffeeshop_management.server.repository.CashTransactionRepository;
 import com.fu.coffeeshop_management.server.repository.ShiftRepository;
+import com.fu.coffeeshop_management.server.repository.specs.ShiftSpecs;
+import com.fu.coffeeshop_management.server.util.KeysetCursor;
+import com.fu.coffeeshop_management.server.util.MoneyUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ShiftService {
 
     private final ShiftRepository shiftRepository;
     private final CashTransactionRepository cashTransactionRepository;
+    private final AnalyticsCheckpointRepository checkpointRepository;
 
     private static final String STATUS_OPEN = "OPEN";
     private static final String STATUS_CLOSED = "CLOSED";
     private static final String TRANSACTION_CASH_IN = "CASH_IN";
     private static final String TRANSACTION_CASH_OUT = "CASH_OUT";
     private static final String TRANSACTION_REFUND = "REFUND";
+    private static final int MAX_PAGE_SIZE = 100;
+    static final String CASH_TOTALS_BACKFILL = "shift_cash_totals_backfill";
 
     /**
      * Start a new shift for the current user
@@ -88,24 +103,26 @@ public class ShiftService {
      */
     @Transactional
     public CashTransactionResponse recordCashTransaction(User currentUser, CashTransactionRequest request) {
-        Shift shift = shiftRepository.findByUserIdAndStatus(currentUser.getId(), STATUS_OPEN)
-            .orElseThrow(() -> new IllegalStateException("No active shift found. Please start a shift first."));
-
         // Validate transaction type
         String transactionType = request.getTransactionType().toUpperCase();
         if (!List.of(TRANSACTION_CASH_IN, TRANSACTION_CASH_OUT, TRANSACTION_REFUND).contains(transactionType)) {
             throw new IllegalArgumentException("Invalid transaction type. Must be CASH_IN, CASH_OUT, or REFUND.");
         }
 
-        // Calculate running balance
-        BigDecimal currentBalance = calculateCurrentBalance(shift.getId());
-        BigDecimal newBalance = currentBalance;
+        // Lock the open shift: concurrent tills on the same shift apply their totals one at a time.
+        Shift shift = shiftRepository.findForUpdateByUserIdAndStatus(currentUser.getId(), STATUS_OPEN)
+            .orElseThrow(() -> new IllegalStateException("No active shift found. Please start a shift first."));
 
+        // Update the running totals kept on the shift; the new balance follows without re-summing.
         if (TRANSACTION_CASH_IN.equals(transactionType)) {
-            newBalance = currentBalance.add(request.getAmount());
-        } else if (TRANSACTION_CASH_OUT.equals(transactionType) || TRANSACTION_REFUND.equals(transactionType)) {
-            newBalance = currentBalance.subtract(request.getAmount());
+            shift.setTotalCashIn(shift.getTotalCashIn().add(request.getAmount()));
+        } else if (TRANSACTION_CASH_OUT.equals(transactionType)) {
+            shift.setTotalCashOut(shift.getTotalCashOut().add(request.getAmount()));
+        } else {
+            shift.setTotalRefunds(shift.getTotalRefunds().add(request.getAmount()));
         }
+        shift.setTransactionCount(shift.getTransactionCount() + 1);
+        BigDecimal newBalance = shift.expectedCash();
 
         CashTransaction transaction = CashTransaction.builder()
             .shift(shift)
@@ -128,7 +145,7 @@ public class ShiftService {
         Shift shift = shiftRepository.findByUserIdAndStatus(currentUser.getId(), STATUS_OPEN)
             .orElseThrow(() -> new IllegalStateException("No active shift found."));
 
-        return calculateCashBalance(shift.getId());
+        return toCashBalanceResponse(shift);
     }
 
     /**
@@ -179,13 +196,10 @@ public class ShiftService {
             throw new IllegalArgumentException("You don't have permission to view this shift.");
         }
 
-        CashBalanceResponse cashBalance = calculateCashBalance(shiftId);
+        ShiftCashTotalsRow totals = findCashTotals(shiftId);
+        CashBalanceResponse cashBalance = toCashBalanceResponse(totals);
         List<CashTransaction> transactions = cashTransactionRepository.findByShiftIdOrderByTimestampAsc(shiftId);
 
-        long cashInCount = cashTransactionRepository.countByShiftIdAndType(shiftId, TRANSACTION_CASH_IN);
-        long cashOutCount = cashTransactionRepository.countByShiftIdAndType(shiftId, TRANSACTION_CASH_OUT);
-        long refundCount = cashTransactionRepository.countByShiftIdAndType(shiftId, TRANSACTION_REFUND);
-
         Long durationMinutes = null;
         BigDecimal cashDiscrepancy = null;
         BigDecimal expectedClosing = null;
@@ -215,9 +229,9 @@ public class ShiftService {
             .expectedClosingCash(expectedClosing)
             .cashDiscrepancy(cashDiscrepancy)
             .totalTransactions(cashBalance.getTransactionCount())
-            .cashInCount((int) cashInCount)
-            .cashOutCount((int) cashOutCount)
-            .refundCount((int) refundCount)
+            .cashInCount((int) totals.cashInCount())
+            .cashOutCount((int) totals.cashOutCount())
+            .refundCount((int) totals.refundCount())
             .transactions(transactions.stream()
                 .map(this::mapToCashTransactionResponse)
                 .collect(Collectors.toList()))
@@ -226,41 +240,58 @@ public class ShiftService {
 
     /**
      * Get paginated shifts with filters (Manager view)
+     * All filters are optional and combined; see {@link ShiftSpecs#filter}.
      */
-    public Page<ShiftResponse> getAllShifts(String status, UUID userId, LocalDate startDate, LocalDate endDate, 
-                                           int page, int size, User currentUser) {
-        // Only managers can view all shifts
-        if (!currentUser.getRole().getName().equals("MANAGER")) {
-            throw new IllegalArgumentException("Only managers can view all shifts.");
-        }
+    @Transactional(readOnly = true)
+    public Page<ShiftResponse> getAllShifts(String status, UUID userId, LocalDate startDate, LocalDate endDate,
+                                           BigDecimal minDiscrepancy, int page, int size, User currentUser) {
+        requireManager(currentUser);
+
+        Pageable pageable = PageRequest.of(page, size, ShiftSpecs.NEWEST_FIRST);
+        return shiftRepository.findAll(shiftFilter(status, userId, startDate, endDate, minDiscrepancy), pageable)
+            .map(this::mapToShiftResponse);
+    }
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Shift> shifts;
-
-        LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
-        LocalDateTime endDateTime = endDate != null ? endDate.atTime(LocalTime.MAX) : null;
-
-        if (startDateTime != null && endDateTime != null) {
-            if (status != null && !status.equalsIgnoreCase("all")) {
-                shifts = shiftRepository.findByStatusAndDateRange(status.toUpperCase(), startDateTime, endDateTime, pageable);
-            } else if (userId != null) {
-                shifts = shiftRepository.findByUserIdAndDateRange(userId, startDateTime, endDateTime, pageable);
-            } else {
-                shifts = shiftRepository.findByDateRange(startDateTime, endDateTime, pageable);
-            }
-        } else if (status != null && !status.equalsIgnoreCase("all")) {
-            if (userId != null) {
-                shifts = shiftRepository.findByUserIdAndStatusOrderByStartTimeDesc(userId, status.toUpperCase(), pageable);
-            } else {
-                shifts = shiftRepository.findByStatusOrderByStartTimeDesc(status.toUpperCase(), pageable);
-            }
-        } else if (userId != null) {
-            shifts = shiftRepository.findByUserIdOrderByStartTimeDesc(userId, pageable);
-        } else {
-            shifts = shiftRepository.findAllByOrderByStartTimeDesc(pageable);
-        }
+    /**
+     * Same as {@link #getAllShifts} without the COUNT(*) query: the returned slice only says whether
+     * a next page exists.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ShiftResponse> getShiftSlice(String status, UUID userId, LocalDate startDate, LocalDate endDate,
+                                              BigDecimal minDiscrepancy, int page, int size, User currentUser) {
+        requireManager(currentUser);
+
+        Pageable pageable = PageRequest.of(page, size, ShiftSpecs.NEWEST_FIRST);
+        return shiftRepository.findBy(shiftFilter(status, userId, startDate, endDate, minDiscrepancy),
+                query -> query.project("user", "user.role").slice(pageable))
+            .map(this::mapToShiftResponse);
+    }
 
-        return shifts.map(this::mapToShiftResponse);
+    /**
+     * Keyset-paginated shift listing, newest first. Pass the previous page's nextCursor to continue;
+     * no offset scan and no count query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ShiftResponse> getShiftPage(String status, UUID userId, LocalDate startDate, LocalDate endDate,
+                                                  BigDecimal minDiscrepancy, String cursor, int size, User currentUser) {
+        requireManager(currentUser);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Specification<Shift> spec = shiftFilter(status, userId, startDate, endDate, minDiscrepancy)
+            .and(ShiftSpecs.after(KeysetCursor.decode(cursor)));
+        List<Shift> shifts = shiftRepository.findBy(spec,
+                query -> query.project("user", "user.role").sortBy(ShiftSpecs.NEWEST_FIRST).limit(pageSize + 1).all());
+
+        boolean hasMore = shifts.size() > pageSize;
+        if (hasMore) {
+            shifts = shifts.subList(0, pageSize);
+        }
+        Shift last = shifts.isEmpty() ? null : shifts.get(shifts.size() - 1);
+        return CursorPage.<ShiftResponse>builder()
+            .items(shifts.stream().map(this::mapToShiftResponse).toList())
+            .hasMore(hasMore)
+            .nextCursor(hasMore ? new KeysetCursor(last.getStartTime(), last.getId()).encode() : null)
+            .build();
     }
 
     /**
@@ -273,8 +304,10 @@ public class ShiftService {
     }
 
     /**
-     * Get shift statistics for a date range (Manager only)
+     * Get shift statistics for a date range (Manager only).
+     * The shifts' running totals are streamed in one query and folded in a single pass.
      */
+    @Transactional(readOnly = true)
     public ShiftStatisticsResponse getShiftStatistics(LocalDate startDate, LocalDate endDate, UUID userId, User currentUser) {
         // Only managers can view statistics
         if (!currentUser.getRole().getName().equals("MANAGER")) {
@@ -284,117 +317,141 @@ public class ShiftService {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
 
-        Pageable pageable = PageRequest.of(0, Integer.MAX_VALUE);
-        Page<Shift> shiftsPage;
-
-        if (userId != null) {
-            shiftsPage = shiftRepository.findByUserIdAndDateRange(userId, startDateTime, endDateTime, pageable);
-        } else {
-            shiftsPage = shiftRepository.findByDateRange(startDateTime, endDateTime, pageable);
-        }
-
-        List<Shift> shifts = shiftsPage.getContent();
-        
-        long openShifts = shiftRepository.countByStatusAndDateRange(STATUS_OPEN, startDateTime, endDateTime);
-        long closedShifts = shiftRepository.countByStatusAndDateRange(STATUS_CLOSED, startDateTime, endDateTime);
-
-        BigDecimal totalCashIn = BigDecimal.ZERO;
-        BigDecimal totalCashOut = BigDecimal.ZERO;
-        BigDecimal totalRefunds = BigDecimal.ZERO;
-        BigDecimal totalDiscrepancy = BigDecimal.ZERO;
-        BigDecimal largestDiscrepancy = BigDecimal.ZERO;
+        int totalShifts = 0;
+        int openShifts = 0;
+        int closedShifts = 0;
+        long totalCashIn = 0;
+        long totalCashOut = 0;
+        long totalRefunds = 0;
+        long totalDiscrepancy = 0;
+        long largestDiscrepancy = 0;
         long totalDurationMinutes = 0;
         int totalTransactions = 0;
         int closedShiftCount = 0;
 
-        for (Shift shift : shifts) {
-            BigDecimal cashIn = cashTransactionRepository.sumAmountByShiftIdAndType(shift.getId(), TRANSACTION_CASH_IN);
-            BigDecimal cashOut = cashTransactionRepository.sumAmountByShiftIdAndType(shift.getId(), TRANSACTION_CASH_OUT);
-            BigDecimal refunds = cashTransactionRepository.sumAmountByShiftIdAndType(shift.getId(), TRANSACTION_REFUND);
-            long transactionCount = cashTransactionRepository.countByShiftId(shift.getId());
-
-            totalCashIn = totalCashIn.add(cashIn);
-            totalCashOut = totalCashOut.add(cashOut);
-            totalRefunds = totalRefunds.add(refunds);
-            totalTransactions += transactionCount;
-
-            if (shift.getStatus().equals(STATUS_CLOSED) && shift.getEndTime() != null) {
-                closedShiftCount++;
-                long duration = Duration.between(shift.getStartTime(), shift.getEndTime()).toMinutes();
-                totalDurationMinutes += duration;
-
-                BigDecimal expectedClosing = shift.getOpeningCash().add(cashIn).subtract(cashOut).subtract(refunds);
-                BigDecimal discrepancy = shift.getClosingCash().subtract(expectedClosing).abs();
-                totalDiscrepancy = totalDiscrepancy.add(discrepancy);
-
-                if (discrepancy.compareTo(largestDiscrepancy) > 0) {
-                    largestDiscrepancy = discrepancy;
+        try (Stream<ShiftStatsRow> rows = shiftRepository.streamStatsRows(startDateTime, endDateTime, userId)) {
+            for (Iterator<ShiftStatsRow> it = rows.iterator(); it.hasNext(); ) {
+                ShiftStatsRow shift = it.next();
+                long cashIn = MoneyUtils.toMinorUnits(shift.totalCashIn());
+                long cashOut = MoneyUtils.toMinorUnits(shift.totalCashOut());
+                long refunds = MoneyUtils.toMinorUnits(shift.totalRefunds());
+
+                totalShifts++;
+                if (STATUS_OPEN.equals(shift.status())) {
+                    openShifts++;
+                } else if (STATUS_CLOSED.equals(shift.status())) {
+                    closedShifts++;
+                }
+                totalCashIn += cashIn;
+                totalCashOut += cashOut;
+                totalRefunds += refunds;
+                totalTransactions += shift.transactionCount();
+
+                if (STATUS_CLOSED.equals(shift.status()) && shift.endTime() != null) {
+                    closedShiftCount++;
+                    totalDurationMinutes += Duration.between(shift.startTime(), shift.endTime()).toMinutes();
+
+                    long expectedClosing = MoneyUtils.toMinorUnits(shift.openingCash()) + cashIn - cashOut - refunds;
+                    long discrepancy = Math.abs(MoneyUtils.toMinorUnits(shift.closingCash()) - expectedClosing);
+                    totalDiscrepancy += discrepancy;
+                    largestDiscrepancy = Math.max(largestDiscrepancy, discrepancy);
                 }
             }
         }
 
-        BigDecimal totalCashHandled = totalCashIn.add(totalCashOut).add(totalRefunds);
-        BigDecimal averageShiftCash = closedShiftCount > 0 ? 
-            totalCashHandled.divide(BigDecimal.valueOf(closedShiftCount), 2, BigDecimal.ROUND_HALF_UP) : 
+        BigDecimal totalCashHandled = MoneyUtils.fromMinorUnits(totalCashIn + totalCashOut + totalRefunds);
+        BigDecimal averageShiftCash = closedShiftCount > 0 ?
+            totalCashHandled.divide(BigDecimal.valueOf(closedShiftCount), 2, RoundingMode.HALF_UP) :
             BigDecimal.ZERO;
         Long averageDuration = closedShiftCount > 0 ? totalDurationMinutes / closedShiftCount : 0L;
 
         return ShiftStatisticsResponse.builder()
             .startDate(startDate)
             .endDate(endDate)
-            .totalShifts(shifts.size())
-            .openShifts((int) openShifts)
-            .closedShifts((int) closedShifts)
+            .totalShifts(totalShifts)
+            .openShifts(openShifts)
+            .closedShifts(closedShifts)
             .totalCashHandled(totalCashHandled)
-            .totalCashIn(totalCashIn)
-            .totalCashOut(totalCashOut)
-            .totalRefunds(totalRefunds)
+            .totalCashIn(MoneyUtils.fromMinorUnits(totalCashIn))
+            .totalCashOut(MoneyUtils.fromMinorUnits(totalCashOut))
+            .totalRefunds(MoneyUtils.fromMinorUnits(totalRefunds))
             .averageShiftCash(averageShiftCash)
-            .totalDiscrepancy(totalDiscrepancy)
-            .largestDiscrepancy(largestDiscrepancy)
+            .totalDiscrepancy(MoneyUtils.fromMinorUnits(totalDiscrepancy))
+            .largestDiscrepancy(MoneyUtils.fromMinorUnits(largestDiscrepancy))
             .averageShiftDurationMinutes(averageDuration)
             .totalTransactions(totalTransactions)
             .build();
     }
 
-    // Helper methods
+    /**
+     * Recomputes the running totals of shifts recorded before the totals were kept on the shift row,
+     * once: a checkpoint records that it ran, so later startups skip the scan of every shift.
+     *
+     * @return the number of shifts repaired, or -1 if the backfill had already run.
+     */
+    @Transactional
+    public int backfillCashTotalsOnce() {
+        if (checkpointRepository.existsById(CASH_TOTALS_BACKFILL)) {
+            return -1;
+        }
+        int repaired = shiftRepository.backfillCashTotals();
+        LocalDateTime now = LocalDateTime.now();
+        checkpointRepository.save(AnalyticsCheckpoint.builder()
+                .name(CASH_TOTALS_BACKFILL)
+                .processedUpTo(now)
+                .updatedAt(now)
+                .build());
+        log.info("Backfilled running cash totals of {} shift(s)", repaired);
+        return repaired;
+    }
 
-    private BigDecimal calculateCurrentBalance(UUID shiftId) {
-        Shift shift = shiftRepository.findById(shiftId)
-            .orElseThrow(() -> new IllegalArgumentException("Shift not found"));
+    // Helper methods
 
-        BigDecimal totalCashIn = cashTransactionRepository.sumAmountByShiftIdAndType(shiftId, TRANSACTION_CASH_IN);
-        BigDecimal totalCashOut = cashTransactionRepository.sumAmountByShiftIdAndType(shiftId, TRANSACTION_CASH_OUT);
-        BigDecimal totalRefunds = cashTransactionRepository.sumAmountByShiftIdAndType(shiftId, TRANSACTION_REFUND);
+    private void requireManager(User currentUser) {
+        // Only managers can view all shifts
+        if (!currentUser.getRole().getName().equals("MANAGER")) {
+            throw new IllegalArgumentException("Only managers can view all shifts.");
+        }
+    }
 
-        return shift.getOpeningCash()
-            .add(totalCashIn)
-            .subtract(totalCashOut)
-            .subtract(totalRefunds);
+    private Specification<Shift> shiftFilter(String status, UUID userId, LocalDate startDate, LocalDate endDate,
+                                             BigDecimal minDiscrepancy) {
+        return ShiftSpecs.filter(status, userId,
+            startDate != null ? startDate.atStartOfDay() : null,
+            endDate != null ? endDate.atTime(LocalTime.MAX) : null,
+            minDiscrepancy);
     }
 
-    private CashBalanceResponse calculateCashBalance(UUID shiftId) {
-        Shift shift = shiftRepository.findById(shiftId)
+    private ShiftCashTotalsRow findCashTotals(UUID shiftId) {
+        return shiftRepository.findCashTotals(shiftId)
             .orElseThrow(() -> new IllegalArgumentException("Shift not found"));
+    }
 
-        BigDecimal totalCashIn = cashTransactionRepository.sumAmountByShiftIdAndType(shiftId, TRANSACTION_CASH_IN);
-        BigDecimal totalCashOut = cashTransactionRepository.sumAmountByShiftIdAndType(shiftId, TRANSACTION_CASH_OUT);
-        BigDecimal totalRefunds = cashTransactionRepository.sumAmountByShiftIdAndType(shiftId, TRANSACTION_REFUND);
-        long transactionCount = cashTransactionRepository.countByShiftId(shiftId);
-
-        BigDecimal expectedBalance = shift.getOpeningCash()
-            .add(totalCashIn)
-            .subtract(totalCashOut)
-            .subtract(totalRefunds);
+    private CashBalanceResponse toCashBalanceResponse(Shift shift) {
+        BigDecimal expectedBalance = shift.expectedCash();
 
         return CashBalanceResponse.builder()
             .openingCash(shift.getOpeningCash())
-            .totalCashIn(totalCashIn)
-            .totalCashOut(totalCashOut)
-            .totalRefunds(totalRefunds)
+            .totalCashIn(shift.getTotalCashIn())
+            .totalCashOut(shift.getTotalCashOut())
+            .totalRefunds(shift.getTotalRefunds())
+            .expectedBalance(expectedBalance)
+            .currentBalance(expectedBalance)
+            .transactionCount(shift.getTransactionCount())
+            .build();
+    }
+
+    private CashBalanceResponse toCashBalanceResponse(ShiftCashTotalsRow totals) {
+        BigDecimal expectedBalance = totals.expectedBalance();
+
+        return CashBalanceResponse.builder()
+            .openingCash(totals.openingCash())
+            .totalCashIn(totals.totalCashIn())
+            .totalCashOut(totals.totalCashOut())
+            .totalRefunds(totals.totalRefunds())
             .expectedBalance(expectedBalance)
             .currentBalance(expectedBalance)
-            .transactionCount((int) transactionCount)
+            .transactionCount((int) totals.transactionCount())
             .build();
     }
 
@@ -406,14 +463,7 @@ public class ShiftService {
             durationMinutes = Duration.between(shift.getStartTime(), shift.getEndTime()).toMinutes();
             
             if (shift.getClosingCash() != null) {
-                BigDecimal totalCashIn = cashTransactionRepository.sumAmountByShiftIdAndType(shift.getId(), TRANSACTION_CASH_IN);
-                BigDecimal totalCashOut = cashTransactionRepository.sumAmountByShiftIdAndType(shift.getId(), TRANSACTION_CASH_OUT);
-                BigDecimal totalRefunds = cashTransactionRepository.sumAmountByShiftIdAndType(shift.getId(), TRANSACTION_REFUND);
-                
-                BigDecimal expectedClosing = shift.getOpeningCash()
-                    .add(totalCashIn)
-                    .subtract(totalCashOut)
-                    .subtract(totalRefunds);
+                BigDecimal expectedClosing = shift.expectedCash();
                 cashDiscrepancy = shift.getClosingCash().subtract(expectedClosing);
             }
         }
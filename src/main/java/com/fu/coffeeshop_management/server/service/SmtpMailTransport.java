@@ -0,0 +1,28 @@
+package com.fu.coffeeshop_management.server.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link MailTransport} backed by the configured SMTP server.
+ */
+@Service
+@RequiredArgsConstructor
+public class SmtpMailTransport implements MailTransport {
+
+    private final JavaMailSender mailSender;
+
+    @Override
+    public void send(String to, String subject, String body, boolean html) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
+        helper.setText(body, html);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        mailSender.send(mimeMessage);
+    }
+}
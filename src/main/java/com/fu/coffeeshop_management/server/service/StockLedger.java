@@ -0,0 +1,163 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.ProductCatalogEntry;
+import com.fu.coffeeshop_management.server.dto.StockMovement;
+import com.fu.coffeeshop_management.server.entity.InventoryTransaction;
+import com.fu.coffeeshop_management.server.entity.Stock;
+import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.repository.InventoryTransactionRepository;
+import com.fu.coffeeshop_management.server.repository.ProductRepository;
+import com.fu.coffeeshop_management.server.repository.StockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies stock movements and records them as inventory transactions.
+ * <p>
+ * Every call, whatever its number of lines, costs the same few statements: the stock rows of all
+ * products involved are locked with one {@code SELECT ... FOR UPDATE}, the new quantities are
+ * computed on the locked rows, and the changed rows and the new inventory transactions are then
+ * written as JDBC batches. The select locks its rows in primary key order, so two movements touching
+ * the same products queue up behind each other instead of losing updates or deadlocking. Product
+ * names come from the catalog cache, so products are not loaded either. Any other writer of a stock
+ * row must lock it the same way before saving it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockLedger {
+
+    public static final String INCOMING = "INCOMING";
+    public static final String OUTGOING = "OUTGOING";
+    public static final String ADJUSTMENT = "ADJUSTMENT";
+
+    /** Reorder level given to a stock row created by its first movement. */
+    private static final int DEFAULT_REORDER_LEVEL = 10;
+
+    private final StockRepository stockRepository;
+    private final ProductRepository productRepository;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final LowStockMonitor lowStockMonitor;
+
+    /**
+     * A recorded movement, the name of its product and the product's stock right after it was applied.
+     */
+    public record Posting(InventoryTransaction transaction, String productName, int stockAfter) {
+    }
+
+    /**
+     * Applies all movements atomically: either every line is applied and recorded, or (on an unknown
+     * product or insufficient stock) none is.
+     *
+     * @return one posting per movement, in the order given.
+     */
+    @Transactional
+    public List<Posting> apply(List<StockMovement> movements, User user) {
+        return post(movements, user, false);
+    }
+
+    /**
+     * Books ingredient consumption as one OUTGOING transaction per ingredient. A sale has already
+     * happened, so consumption never fails for lack of stock: quantities floor at zero and the shortfall
+     * is logged.
+     *
+     * @param quantities total quantity to consume per ingredient product ID.
+     * @return one posting per ingredient.
+     */
+    @Transactional
+    public List<Posting> consume(Map<UUID, Integer> quantities, User user) {
+        List<StockMovement> movements = quantities.entrySet().stream()
+                .map(entry -> new StockMovement(entry.getKey(), OUTGOING, entry.getValue()))
+                .toList();
+        return post(movements, user, true);
+    }
+
+    private List<Posting> post(List<StockMovement> movements, User user, boolean floorAtZero) {
+        if (movements.isEmpty()) {
+            return List.of();
+        }
+
+        Set<UUID> productIds = movements.stream().map(StockMovement::productId).collect(Collectors.toSet());
+        Map<UUID, ProductCatalogEntry> products = productCatalogCache.findAllById(productIds);
+        for (UUID productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new IllegalArgumentException("Product not found with ID: " + productId);
+            }
+        }
+
+        Map<UUID, Stock> stocks = stockRepository.findAllForUpdate(productIds).stream()
+                .collect(Collectors.toMap(Stock::getProductId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Posting> postings = new ArrayList<>(movements.size());
+        for (StockMovement movement : movements) {
+            ProductCatalogEntry product = products.get(movement.productId());
+            Stock stock = stocks.computeIfAbsent(movement.productId(), this::newStock);
+
+            int after = next(product, stock.getQuantityInStock(), movement, floorAtZero);
+            // Written back by the flush below, batched with the other rows.
+            stock.setQuantityInStock(after);
+
+            InventoryTransaction transaction = new InventoryTransaction();
+            transaction.setProduct(productRepository.getReferenceById(movement.productId()));
+            transaction.setQuantity(movement.quantity());
+            transaction.setTransactionType(movement.transactionType());
+            transaction.setUnitCost(movement.unitCost());
+            transaction.setNote(movement.note());
+            transaction.setTransactionTime(now);
+            transaction.setUser(user);
+            postings.add(new Posting(transaction, product.name(), after));
+        }
+
+        inventoryTransactionRepository.saveAll(postings.stream().map(Posting::transaction).toList());
+        stockRepository.flush();
+        productIds.forEach(lowStockMonitor::stockChanged);
+
+        log.info("Applied {} stock movement(s) for {} product(s)", movements.size(), productIds.size());
+        return postings;
+    }
+
+    /**
+     * The quantity after applying one movement to {@code current}.
+     */
+    private int next(ProductCatalogEntry product, int current, StockMovement movement, boolean floorAtZero) {
+        return switch (movement.transactionType()) {
+            case INCOMING -> Math.addExact(current, movement.quantity());
+            case ADJUSTMENT -> movement.quantity();
+            case OUTGOING -> {
+                if (current >= movement.quantity()) {
+                    yield current - movement.quantity();
+                }
+                if (!floorAtZero) {
+                    throw new IllegalStateException("Insufficient stock for product " + product.name()
+                            + ". Current: " + current);
+                }
+                log.warn("Ingredient {} short by {} (had {}, consumed {}); stock set to 0",
+                        product.name(), movement.quantity() - current, current, movement.quantity());
+                yield 0;
+            }
+            default -> throw new IllegalArgumentException("Unknown transaction type: " + movement.transactionType());
+        };
+    }
+
+    /**
+     * Stock row for a product that has none yet; inserted by the flush. A concurrent first movement
+     * of the same product fails on the primary key and rolls back rather than being lost.
+     */
+    private Stock newStock(UUID productId) {
+        Stock stock = Stock.builder()
+                .product(productRepository.getReferenceById(productId))
+                .quantityInStock(0)
+                .reorderLevel(DEFAULT_REORDER_LEVEL)
+                .build();
+        return stockRepository.save(stock);
+    }
+}
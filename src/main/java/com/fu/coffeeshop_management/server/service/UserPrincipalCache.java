@@ -0,0 +1,117 @@
+package com.fu.coffeeshop_management.server.service;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Caches the authenticated principal per (email, token issue time), so the JWT filter does not load
+ * the user and its role from the database on every request.
+ * <p>
+ * On a miss the user and its authorities are loaded once through the {@link UserDetailsService}.
+ * Entries expire with the token. {@link #evict(String)} must be called whenever a user's role or
+ * password changes; inside a transaction the eviction happens after commit. Each eviction bumps the
+ * user's generation, and a principal loaded before that is not put back into the cache, so a load
+ * racing an update cannot leave the old role cached until the token expires.
+ */
+@Service
+@Slf4j
+public class UserPrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final int maxSize;
+    private final Map<Key, CachedPrincipal> principals;
+    /** Evictions per user (lower-cased email); guarded by {@code principals}. */
+    private final Map<String, Long> generations = new HashMap<>();
+
+    public UserPrincipalCache(UserDetailsService userDetailsService,
+                              @Value("${application.security.principal-cache-size:1024}") int maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.maxSize = maxSize;
+        this.principals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedPrincipal> eldest) {
+                return size() > UserPrincipalCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the principal for already verified claims, loading the user from the database only
+     * on a cache miss.
+     *
+     * @throws org.springframework.security.core.userdetails.UsernameNotFoundException if the user no longer exists.
+     */
+    public CachedPrincipal get(Claims claims) {
+        Key key = new Key(claims.getSubject(), claims.getIssuedAt());
+        CachedPrincipal cached;
+        long generation;
+        synchronized (principals) {
+            cached = principals.get(key);
+            generation = generation(key.email());
+        }
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        UserDetails user = userDetailsService.loadUserByUsername(claims.getSubject());
+        CachedPrincipal loaded = new CachedPrincipal(user, List.copyOf(user.getAuthorities()), claims.getExpiration());
+        synchronized (principals) {
+            // Evicted while loading: what was loaded may predate the change, so serve it once but do not cache it.
+            if (generation(key.email()) == generation) {
+                principals.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops every cached principal of the given user once the current transaction commits
+     * (immediately when there is none).
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(email);
+                }
+            });
+        } else {
+            remove(email);
+        }
+    }
+
+    private void remove(String email) {
+        synchronized (principals) {
+            generations.merge(email.toLowerCase(Locale.ROOT), 1L, Long::sum);
+            principals.keySet().removeIf(key -> email.equalsIgnoreCase(key.email()));
+        }
+        log.debug("Evicted cached principals of {}", email);
+    }
+
+    private long generation(String email) {
+        return email == null ? 0L : generations.getOrDefault(email.toLowerCase(Locale.ROOT), 0L);
+    }
+
+    private record Key(String email, Date issuedAt) {
+    }
+
+    public record CachedPrincipal(UserDetails user, List<GrantedAuthority> authorities, Date expiresAt) {
+
+        boolean isExpired() {
+            return expiresAt != null && expiresAt.before(new Date());
+        }
+    }
+}
@@ -23,11 +23,14 @@ public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+                       UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     // Helper method to convert User entity to UserResponse DTO
@@ -94,6 +97,8 @@ public class UserService {
         user.setRole(role);
 
         User updatedUser = userRepository.save(user);
+        // The role may have changed; drop the cached principal so the next request reloads it.
+        userPrincipalCache.evict(updatedUser.getEmail());
         return convertToDTO(updatedUser);
     }
 }
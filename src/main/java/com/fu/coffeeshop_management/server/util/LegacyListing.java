@@ -0,0 +1,55 @@
+package com.fu.coffeeshop_management.server.util;
+
+import com.fu.coffeeshop_management.server.exception.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Policy for the list endpoints that predate cursor paging (GET /api/orders, GET /api/v1/bills and
+ * GET /api/inventory/transactions/{productId}). They keep their contract, the complete list in the
+ * original shape, but only up to {@link #MAX_ROWS} rows: a request matching more is rejected with a
+ * 400 naming the paged endpoint, never cut short. Every response is marked deprecated with
+ * {@code Deprecation} and {@code Link} headers pointing at the paged successor.
+ */
+public final class LegacyListing {
+
+    public static final int MAX_ROWS = 1000;
+
+    private LegacyListing() {
+    }
+
+    /**
+     * The rows to query: one more than allowed, so that a result over the limit can be told apart.
+     */
+    public static Pageable probe() {
+        return PageRequest.of(0, MAX_ROWS + 1);
+    }
+
+    /**
+     * Returns the rows read with {@link #probe()} if they are the complete list.
+     *
+     * @param successor path of the paged endpoint to use instead.
+     * @throws BadRequestException if more than {@link #MAX_ROWS} rows match.
+     */
+    public static <T> List<T> requireComplete(List<T> rows, String successor) {
+        if (rows.size() > MAX_ROWS) {
+            throw new BadRequestException("More than " + MAX_ROWS
+                    + " rows match; narrow the filters or page through them with " + successor);
+        }
+        return rows;
+    }
+
+    /**
+     * A 200 response for a legacy list, announcing its paged successor.
+     */
+    public static <T> ResponseEntity<List<T>> ok(List<T> rows, String successor) {
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "<" + successor + ">; rel=\"successor-version\"")
+                .body(rows);
+    }
+}
@@ -0,0 +1,69 @@
+package com.fu.coffeeshop_management.server.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Money arithmetic shared by orders and bills.
+ * <p>
+ * All amounts are stored as {@code DECIMAL(10,2)}, so they fit comfortably in a {@code long} of minor
+ * units (cents/xu). Line totals and sums are computed on those longs and only converted back to a
+ * {@link BigDecimal} once, instead of allocating a new {@code BigDecimal} for every multiply and add.
+ */
+public final class MoneyUtils {
+
+    public static final int SCALE = 2;
+
+    private MoneyUtils() {
+    }
+
+    /**
+     * Converts an amount to minor units, rounding half-up to {@link #SCALE} decimals.
+     * A null amount counts as zero.
+     *
+     * @throws ArithmeticException if the amount does not fit in a long.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Price times quantity, in minor units. The quantity may be negative (used for deltas).
+     * <p>
+     * A price with more than {@link #SCALE} decimals is multiplied first and the line rounded once,
+     * so the rounding error is not multiplied by the quantity.
+     */
+    public static long lineUnits(BigDecimal price, int quantity) {
+        if (price != null && price.scale() > SCALE) {
+            return toMinorUnits(price.multiply(BigDecimal.valueOf(quantity)));
+        }
+        return Math.multiplyExact(toMinorUnits(price), (long) quantity);
+    }
+
+    public static BigDecimal lineTotal(BigDecimal price, int quantity) {
+        return fromMinorUnits(lineUnits(price, quantity));
+    }
+
+    /**
+     * Sums price times quantity over the given lines.
+     *
+     * @return the total with scale {@link #SCALE}; zero for no lines.
+     */
+    public static <T> BigDecimal sumLines(Iterable<T> lines, Function<? super T, BigDecimal> price,
+                                          ToIntFunction<? super T> quantity) {
+        long total = 0L;
+        for (T line : lines) {
+            total = Math.addExact(total, lineUnits(price.apply(line), quantity.applyAsInt(line)));
+        }
+        return fromMinorUnits(total);
+    }
+}
@@ -0,0 +1,158 @@
+package com.fu.coffeeshop_management.server.util;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable trigram index for substring search over a fixed list of names.
+ * <p>
+ * Names and queries are folded before indexing: lowercased, accents stripped and "đ" mapped to "d",
+ * so "ca phe" finds "Cà phê" and "ban" finds "Bàn". A query of three or more characters is answered
+ * by intersecting the posting lists of its trigrams and verifying the few remaining candidates;
+ * shorter queries scan the folded names. Matches are ranked exact &gt; prefix &gt; word prefix &gt;
+ * substring, then by name length and name.
+ */
+public final class NameSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final String[] names;
+    private final String[] folded;
+    private final Map<String, int[]> postings;
+
+    private NameSearchIndex(String[] names, String[] folded, Map<String, int[]> postings) {
+        this.names = names;
+        this.folded = folded;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds an index over the given names; search results are positions in this list.
+     */
+    public static NameSearchIndex of(List<String> names) {
+        String[] original = new String[names.size()];
+        String[] folded = new String[names.size()];
+        Map<String, List<Integer>> grams = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            original[i] = names.get(i) != null ? names.get(i) : "";
+            folded[i] = fold(original[i]);
+            for (String gram : trigrams(folded[i])) {
+                grams.computeIfAbsent(gram, key -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+        grams.forEach((gram, positions) -> postings.put(gram, positions.stream().mapToInt(Integer::intValue).toArray()));
+        return new NameSearchIndex(original, folded, postings);
+    }
+
+    /**
+     * Lowercases, strips diacritics and collapses whitespace.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Returns the positions of all names containing the query, best match first.
+     * A blank query matches nothing.
+     */
+    public List<Integer> search(String query) {
+        String q = fold(query);
+        if (q.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        if (q.length() < GRAM) {
+            for (int i = 0; i < folded.length; i++) {
+                if (folded[i].contains(q)) {
+                    matches.add(i);
+                }
+            }
+        } else {
+            int[] candidates = candidates(q);
+            for (int i : candidates) {
+                if (folded[i].contains(q)) {
+                    matches.add(i);
+                }
+            }
+        }
+
+        matches.sort(Comparator.<Integer>comparingInt(i -> rank(folded[i], q))
+                .thenComparingInt(i -> folded[i].length())
+                .thenComparing(i -> names[i]));
+        return matches;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Intersection of the posting lists of every trigram in the query, smallest list first.
+     */
+    private int[] candidates(String q) {
+        List<int[]> lists = new ArrayList<>();
+        for (String gram : trigrams(q)) {
+            int[] list = postings.get(gram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] result = lists.get(0);
+        for (int l = 1; l < lists.size() && result.length > 0; l++) {
+            result = intersect(result, lists.get(l));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[n++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static int rank(String name, String q) {
+        if (name.equals(q)) {
+            return 0;
+        }
+        if (name.startsWith(q)) {
+            return 1;
+        }
+        if (name.contains(" " + q)) {
+            return 2;
+        }
+        return 3;
+    }
+}
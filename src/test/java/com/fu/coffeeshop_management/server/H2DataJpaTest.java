@@ -0,0 +1,25 @@
+package com.fu.coffeeshop_management.server;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.*;
+
+/**
+ * A JPA slice test against the in-memory database of the {@code h2} test profile
+ * (application-h2.properties), with no test-managed transaction: every repository and service call
+ * commits on its own, as it does in the application, so locking and concurrency behave for real.
+ * Tests clean up their own rows.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public @interface H2DataJpaTest {
+}
@@ -0,0 +1,95 @@
+package com.fu.coffeeshop_management.server.config;
+
+import com.fu.coffeeshop_management.server.entity.Role;
+import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationConfigTest {
+
+    private static final int STRENGTH = 5;
+
+    @Mock private UserRepository userRepository;
+
+    private AuthenticationManager authenticationManager;
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationConfig config = new ApplicationConfig(userRepository);
+        ReflectionTestUtils.setField(config, "passwordEncoding", "bcrypt");
+        ReflectionTestUtils.setField(config, "bcryptStrength", STRENGTH);
+        ReflectionTestUtils.setField(config, "hashThreads", 1);
+        ReflectionTestUtils.setField(config, "hashQueue", 4);
+        ReflectionTestUtils.setField(config, "hashMaxWaitMillis", 5_000L);
+        authenticationManager = new ProviderManager(config.authenticationProvider());
+        passwordEncoder = config.passwordEncoder();
+        lenient().when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void login_withUnprefixedLegacyHash_rewritesItWithThePrefix() {
+        User user = user(new BCryptPasswordEncoder(STRENGTH).encode("secret"));
+
+        login(user);
+
+        String rewritten = savedPassword();
+        assertTrue(rewritten.startsWith("{bcrypt}$2a$0" + STRENGTH + "$"), rewritten);
+        assertTrue(passwordEncoder.matches("secret", rewritten));
+    }
+
+    @Test
+    void login_withLowerCostHash_rewritesItAtTheConfiguredCost() {
+        User user = user("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret"));
+
+        login(user);
+
+        String rewritten = savedPassword();
+        assertTrue(rewritten.startsWith("{bcrypt}$2a$0" + STRENGTH + "$"), rewritten);
+        assertTrue(passwordEncoder.matches("secret", rewritten));
+    }
+
+    @Test
+    void login_withCurrentHash_leavesItAlone() {
+        User user = user("{bcrypt}" + new BCryptPasswordEncoder(STRENGTH).encode("secret"));
+
+        login(user);
+
+        verify(userRepository, never()).save(any());
+    }
+
+    private User user(String storedHash) {
+        User user = User.builder().email("staff@example.com").password(storedHash)
+                .role(Role.builder().name("WAITER").build()).build();
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        return user;
+    }
+
+    private void login(User user) {
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(user.getEmail(), "secret"));
+    }
+
+    private String savedPassword() {
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        return saved.getValue().getPassword();
+    }
+}
@@ -0,0 +1,139 @@
+package com.fu.coffeeshop_management.server.config;
+
+import com.fu.coffeeshop_management.server.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final BlockingEncoder delegate = new BlockingEncoder();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        delegate.release.countDown();
+        callers.shutdownNow();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void saturatedPoolWithoutQueue_rejectsImmediately() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 0, 5_000);
+        Future<Boolean> running = occupyTheHashingThread();
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.matches("pw", "hash"));
+        assertEquals(1, encoder.getRejected());
+
+        delegate.release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fullQueue_rejectsTheNextCaller() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5_000);
+        Future<Boolean> running = occupyTheHashingThread();
+        Future<String> queued = callers.submit(() -> encoder.encode("pw"));
+        await(() -> encoder.getQueued() == 1);
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.encode("pw"));
+        assertEquals(1, encoder.getRejected());
+
+        delegate.release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertEquals("encoded", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void callerWaitingLongerThanMaxWait_isRejectedWithoutLeakingItsSlot() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 200);
+        Future<Boolean> running = occupyTheHashingThread();
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.matches("pw", "hash"));
+        ExecutionException timedOut = assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TooManyRequestsException.class, timedOut.getCause());
+
+        delegate.release.countDown();
+        await(() -> encoder.getQueued() == 0);
+        assertEquals("encoded", encoder.encode("pw"));
+        assertEquals("encoded", encoder.encode("pw"));
+    }
+
+    @Test
+    void idleEncoderWithoutQueue_neverRejectsSequentialCalls() {
+        delegate.release.countDown();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 0, 5_000);
+
+        for (int i = 0; i < 2_000; i++) {
+            assertTrue(encoder.matches("pw", "hash"));
+        }
+        assertEquals(0, encoder.getRejected());
+    }
+
+    @Test
+    void upgradeEncoding_doesNotNeedAHashingThread() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 0, 5_000);
+        occupyTheHashingThread();
+
+        assertTrue(encoder.upgradeEncoding("hash"));
+        assertEquals(0, encoder.getRejected());
+    }
+
+    /** Starts a matches() call that holds the only hashing thread until the delegate is released. */
+    private Future<Boolean> occupyTheHashingThread() {
+        Future<Boolean> future = callers.submit(() -> encoder.matches("pw", "hash"));
+        await(() -> delegate.active.get() == 1);
+        return future;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5s");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Answers instantly once released; until then every call blocks. */
+    static class BlockingEncoder implements PasswordEncoder {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger active = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            block();
+            return "encoded";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            block();
+            return true;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return true;
+        }
+
+        private void block() {
+            active.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
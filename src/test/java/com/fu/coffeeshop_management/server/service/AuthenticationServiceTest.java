@@ -0,0 +1,108 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.config.BoundedPasswordEncoder;
+import com.fu.coffeeshop_management.server.dto.AuthenticationRequest;
+import com.fu.coffeeshop_management.server.entity.Role;
+import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.exception.TooManyRequestsException;
+import com.fu.coffeeshop_management.server.repository.RoleRepository;
+import com.fu.coffeeshop_management.server.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationServiceTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private RoleRepository roleRepository;
+    @Mock private JwtService jwtService;
+    @Mock private MailOutboxService mailOutboxService;
+    @Mock private UserPrincipalCache userPrincipalCache;
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newSingleThreadExecutor();
+    private BoundedPasswordEncoder passwordEncoder;
+    private AuthenticationService authenticationService;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        // One hashing thread and no queue, so a single blocked hash saturates the encoder.
+        passwordEncoder = new BoundedPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                if ("block".contentEquals(rawPassword)) {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        }, 1, 0, 5_000);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(email -> userRepository.findByEmail(email).orElseThrow());
+        provider.setPasswordEncoder(passwordEncoder);
+
+        authenticationService = new AuthenticationService(userRepository, roleRepository, passwordEncoder,
+                jwtService, new ProviderManager(provider), mailOutboxService, userPrincipalCache);
+
+        User user = User.builder().email("staff@example.com").password(bcrypt.encode("secret"))
+                .role(Role.builder().name("WAITER").build()).build();
+        lenient().when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void authenticate_whileHashingIsSaturated_surfacesTooManyRequests() throws Exception {
+        callers.submit(() -> passwordEncoder.matches("block", "unused"));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TooManyRequestsException.class,
+                () -> authenticationService.authenticate(request("staff@example.com", "secret")));
+    }
+
+    @Test
+    void authenticate_withWrongPassword_isStillInvalidCredentials() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> authenticationService.authenticate(request("staff@example.com", "wrong")));
+
+        assertEquals("Invalid email or password", ex.getMessage());
+    }
+
+    private static AuthenticationRequest request(String email, String password) {
+        return AuthenticationRequest.builder().email(email).password(password).build();
+    }
+}
@@ -0,0 +1,197 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.H2DataJpaTest;
+import com.fu.coffeeshop_management.server.dto.BillGenerationRequest;
+import com.fu.coffeeshop_management.server.dto.OrderItemRequestDTO;
+import com.fu.coffeeshop_management.server.dto.OrderRequestDTO;
+import com.fu.coffeeshop_management.server.dto.PaymentConfirmationRequest;
+import com.fu.coffeeshop_management.server.entity.*;
+import com.fu.coffeeshop_management.server.exception.ConflictException;
+import com.fu.coffeeshop_management.server.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Confirms the same bill from many threads against a real (in-memory) database and checks that it
+ * is paid, counted in the revenue rollup and credited with loyalty points exactly once.
+ */
+@H2DataJpaTest
+@Import({BillService.class, OrderService.class, LoyaltyService.class, RevenueRollupService.class, RecipeService.class,
+        StockLedger.class, LowStockMonitor.class, ProductCatalogCache.class})
+class BillPaymentConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired private BillService billService;
+    @Autowired private OrderService orderService;
+    @Autowired private ProductCatalogCache productCatalogCache;
+    @Autowired private LoyaltyTransactionRepository loyaltyTransactionRepository;
+    @Autowired private BillPaymentRepository billPaymentRepository;
+    @Autowired private BillRepository billRepository;
+    @Autowired private DailyRevenueRollupRepository dailyRevenueRollupRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private TableOrderRepository tableOrderRepository;
+    @Autowired private OrderDetailRepository orderDetailRepository;
+    @Autowired private TableInfoRepository tableInfoRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private LoyaltyRepository loyaltyRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User staff;
+    private Loyalty loyalty;
+    private String productId;
+    private String tableId;
+
+    @BeforeEach
+    void setUp() {
+        loyaltyTransactionRepository.deleteAll();
+        billPaymentRepository.deleteAll();
+        billRepository.deleteAll();
+        dailyRevenueRollupRepository.deleteAll();
+        tableOrderRepository.deleteAll();
+        orderDetailRepository.deleteAll();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        loyaltyRepository.deleteAll();
+        tableInfoRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+
+        Role role = new Role();
+        role.setName("CASHIER");
+        role = roleRepository.save(role);
+
+        User cashier = new User();
+        cashier.setEmail("cashier@example.com");
+        cashier.setPassword("x");
+        cashier.setFullname("Cashier");
+        cashier.setMobile("0900000000");
+        cashier.setRole(role);
+        staff = userRepository.save(cashier);
+
+        Category drinks = new Category();
+        drinks.setName("Drinks");
+        drinks = categoryRepository.save(drinks);
+
+        Product product = new Product();
+        product.setName("Latte");
+        product.setPrice(new BigDecimal("45000"));
+        product.setCategory(drinks);
+        productId = productRepository.save(product).getId().toString();
+
+        TableInfo table = TableInfo.builder().name("Table 1").location("Floor 1").status("AVAILABLE").seatCount(4).build();
+        tableId = tableInfoRepository.save(table).getId().toString();
+
+        loyalty = new Loyalty();
+        loyalty.setPoints(0);
+        loyalty = loyaltyRepository.save(loyalty);
+
+        Customer customer = new Customer();
+        customer.setFullName("Regular");
+        customer.setPhone("0911111111");
+        customer.setLoyalty(loyalty);
+        customerRepository.save(customer);
+
+        productCatalogCache.invalidate();
+    }
+
+    @Test
+    void concurrentConfirmations_payAndCountTheBillOnce() throws Exception {
+        UUID billId = pendingBill();
+        AtomicInteger paid = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, () -> {
+            PaymentConfirmationRequest request = new PaymentConfirmationRequest();
+            request.setPaymentMethod("Cash");
+            try {
+                billService.confirmPayment(billId, request);
+                paid.incrementAndGet();
+            } catch (ConflictException e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertEquals(1, paid.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1, billPaymentRepository.findByBillId(billId).size());
+
+        DailyRevenueRollup day = dailyRevenueRollupRepository.findById(LocalDate.now()).orElseThrow();
+        assertEquals(1L, day.getBillCount());
+        assertEquals(0, new BigDecimal("90000").compareTo(day.getTotalRevenue()));
+        // 90000 / 10000, floored
+        assertEquals(9, loyaltyRepository.findById(loyalty.getLoyaltyId()).orElseThrow().getPoints());
+    }
+
+    @Test
+    void insertFromBills_overwritesADayThatAlreadyHasARow() {
+        UUID billId = pendingBill();
+        PaymentConfirmationRequest request = new PaymentConfirmationRequest();
+        request.setPaymentMethod("Banking");
+        billService.confirmPayment(billId, request);
+
+        // Simulates a payment re-creating the row between deleteRange and insertFromBills.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            dailyRevenueRollupRepository.addPaidBill(LocalDate.now(), new BigDecimal("1"), LocalDateTime.now());
+            dailyRevenueRollupRepository.insertFromBills(LocalDate.now().atStartOfDay(),
+                    LocalDate.now().plusDays(1).atStartOfDay(), LocalDateTime.now());
+        });
+
+        DailyRevenueRollup day = dailyRevenueRollupRepository.findById(LocalDate.now()).orElseThrow();
+        assertEquals(1L, day.getBillCount());
+        assertEquals(0, new BigDecimal("90000").compareTo(day.getTotalRevenue()));
+    }
+
+    private UUID pendingBill() {
+        orderService.createOrderFromDTO(new OrderRequestDTO(List.of(tableId),
+                List.of(new OrderItemRequestDTO(productId, 2)), null, null), staff.getId());
+        UUID orderId = orderRepository.findAll().get(0).getId();
+
+        BillGenerationRequest request = new BillGenerationRequest();
+        request.setOrderId(orderId);
+        request.setCustomerPhone("0911111111");
+        return billService.generateBill(request).getBillId();
+    }
+
+    private static void runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.H2DataJpaTest;
+import com.fu.coffeeshop_management.server.dto.*;
+import com.fu.coffeeshop_management.server.entity.*;
+import com.fu.coffeeshop_management.server.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements the bill and order detail read paths prepare, against a real (in-memory) database,
+ * so a lazy association touched during mapping shows up as a failing count.
+ */
+@H2DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({BillService.class, OrderService.class, LoyaltyService.class, RevenueRollupService.class, RecipeService.class,
+        StockLedger.class, LowStockMonitor.class, ProductCatalogCache.class})
+class BillServiceStatementCountTest {
+
+    @Autowired private BillService billService;
+    @Autowired private OrderService orderService;
+    @Autowired private ProductCatalogCache productCatalogCache;
+    @Autowired private BillPaymentRepository billPaymentRepository;
+    @Autowired private BillRepository billRepository;
+    @Autowired private DailyRevenueRollupRepository dailyRevenueRollupRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private TableOrderRepository tableOrderRepository;
+    @Autowired private OrderDetailRepository orderDetailRepository;
+    @Autowired private TableInfoRepository tableInfoRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private User staff;
+    private final List<String> productIds = new ArrayList<>();
+    private final List<String> tableIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        billPaymentRepository.deleteAll();
+        billRepository.deleteAll();
+        dailyRevenueRollupRepository.deleteAll();
+        tableOrderRepository.deleteAll();
+        orderDetailRepository.deleteAll();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        tableInfoRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+
+        Role role = new Role();
+        role.setName("CASHIER");
+        role = roleRepository.save(role);
+
+        User cashier = new User();
+        cashier.setEmail("cashier@example.com");
+        cashier.setPassword("x");
+        cashier.setFullname("Cashier");
+        cashier.setMobile("0900000000");
+        cashier.setRole(role);
+        staff = userRepository.save(cashier);
+
+        Category drinks = new Category();
+        drinks.setName("Drinks");
+        drinks = categoryRepository.save(drinks);
+
+        productIds.clear();
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setName("Drink " + i);
+            product.setPrice(new BigDecimal("25000"));
+            product.setCategory(drinks);
+            productIds.add(productRepository.save(product).getId().toString());
+        }
+
+        tableIds.clear();
+        for (int i = 0; i < 2; i++) {
+            TableInfo table = TableInfo.builder().name("Table " + i).location("Floor 1").status("AVAILABLE").seatCount(4).build();
+            tableIds.add(tableInfoRepository.save(table).getId().toString());
+        }
+
+        Customer customer = new Customer();
+        customer.setFullName("Regular");
+        customer.setPhone("0911111111");
+        customerRepository.save(customer);
+
+        productCatalogCache.invalidate();
+        productCatalogCache.findAll();
+    }
+
+    @Test
+    void getBillDetails_loadsBillOrderAndPaymentsInThreeStatements() {
+        UUID billId = paidBill("0911111111");
+        Statistics statistics = statistics();
+
+        BillDetailResponse details = billService.getBillDetails(billId);
+
+        // bill with customer and voucher, order with cashier, tables and lines, payments
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(5, details.getItems().size());
+        assertEquals("Regular", details.getCustomerInfo().getName());
+        assertEquals("Cashier", details.getCashierName());
+        assertEquals(1, details.getPayments().size());
+    }
+
+    @Test
+    void getBillList_isOneStatementRegardlessOfBillCount() {
+        for (int i = 0; i < 4; i++) {
+            paidBill(null);
+        }
+        Statistics statistics = statistics();
+
+        List<BillSummaryDTO> bills = billService.getBillList(null);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(4, bills.size());
+    }
+
+    @Test
+    void getOrderById_isOneStatement() {
+        UUID orderId = createOrder();
+        Statistics statistics = statistics();
+
+        OrderResponseDTO order = orderService.getOrderById(orderId.toString());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(5, order.getItems().size());
+        assertEquals(2, order.getTables().size());
+    }
+
+    private UUID createOrder() {
+        Set<UUID> existing = orderRepository.findAll().stream().map(Order::getId).collect(Collectors.toSet());
+        List<OrderItemRequestDTO> items = productIds.stream().map(id -> new OrderItemRequestDTO(id, 1)).toList();
+        orderService.createOrderFromDTO(new OrderRequestDTO(tableIds, items, null, null), staff.getId());
+        return orderRepository.findAll().stream().map(Order::getId).filter(id -> !existing.contains(id))
+                .findFirst().orElseThrow();
+    }
+
+    private UUID paidBill(String customerPhone) {
+        BillGenerationRequest request = new BillGenerationRequest();
+        request.setOrderId(createOrder());
+        request.setCustomerPhone(customerPhone);
+        UUID billId = billService.generateBill(request).getBillId();
+
+        PaymentConfirmationRequest payment = new PaymentConfirmationRequest();
+        payment.setPaymentMethod("Cash");
+        billService.confirmPayment(billId, payment);
+        return billId;
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,211 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.H2DataJpaTest;
+import com.fu.coffeeshop_management.server.entity.*;
+import com.fu.coffeeshop_management.server.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Folds hand-written ledgers against a real (in-memory) database: on-hand quantity, weighted average
+ * cost, daily usage, the reset on an adjustment, transactions that commit after the checkpoint has
+ * passed their time, and a pass that fails part-way through.
+ */
+@H2DataJpaTest
+@TestPropertySource(properties = {
+        "application.analytics.inventory.products-per-chunk=1"
+})
+@Import(InventoryAnalyticsService.class)
+class InventoryAnalyticsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(2);
+
+    @Autowired private InventoryAnalyticsService inventoryAnalyticsService;
+    @Autowired private InventoryTransactionRepository inventoryTransactionRepository;
+    @Autowired private IngredientAnalyticsRepository ingredientAnalyticsRepository;
+    @Autowired private AnalyticsCheckpointRepository analyticsCheckpointRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private UserRepository userRepository;
+    @MockitoSpyBean private DailyIngredientUsageRepository dailyIngredientUsageRepository;
+
+    private User user;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        inventoryTransactionRepository.deleteAll();
+        ingredientAnalyticsRepository.deleteAll();
+        dailyIngredientUsageRepository.deleteAll();
+        analyticsCheckpointRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Role role = new Role();
+        role.setName("MANAGER");
+        role = roleRepository.save(role);
+
+        User manager = new User();
+        manager.setEmail("manager@example.com");
+        manager.setPassword("x");
+        manager.setFullname("Manager");
+        manager.setMobile("0900000000");
+        manager.setRole(role);
+        user = userRepository.save(manager);
+
+        Category ingredients = new Category();
+        ingredients.setName("Ingredients");
+        category = categoryRepository.save(ingredients);
+    }
+
+    @Test
+    void refresh_foldsQuantityWeightedAverageCostAndDailyUsage() {
+        UUID milk = product("Milk");
+        record(milk, StockLedger.INCOMING, 10, "100", DAY.atTime(8, 0));
+        record(milk, StockLedger.INCOMING, 30, "200", DAY.atTime(9, 0));
+        record(milk, StockLedger.OUTGOING, 5, null, DAY.atTime(10, 0));
+        record(milk, StockLedger.INCOMING, 5, "100", DAY.plusDays(1).atTime(8, 0));
+        // No cost: counted in the quantity, leaves the average alone
+        record(milk, StockLedger.INCOMING, 10, null, DAY.plusDays(1).atTime(9, 0));
+
+        assertEquals(5, inventoryAnalyticsService.refresh());
+
+        IngredientAnalytics state = analytics(milk);
+        assertEquals(50, state.getOnHand());
+        // (10 x 100 + 30 x 200) / 40 = 175, then (35 x 175 + 5 x 100) / 40
+        assertEquals(new BigDecimal("165.6250"), state.getAverageCost());
+        assertEquals(DAY.plusDays(1).atTime(9, 0), state.getLastTransactionTime());
+
+        DailyIngredientUsage first = usage(milk, DAY);
+        assertEquals(40, first.getReceivedQuantity());
+        assertEquals(5, first.getConsumedQuantity());
+        assertEquals(15, usage(milk, DAY.plusDays(1)).getReceivedQuantity());
+        assertNotNull(inventoryAnalyticsService.foldedUpTo());
+    }
+
+    @Test
+    void adjustment_resetsTheQuantityTheNextDeliveryIsWeightedAgainst() {
+        UUID beans = product("Beans");
+        record(beans, StockLedger.INCOMING, 10, "100", DAY.atTime(8, 0));
+        record(beans, StockLedger.ADJUSTMENT, 4, null, DAY.atTime(9, 0));
+        record(beans, StockLedger.INCOMING, 4, "200", DAY.atTime(10, 0));
+        record(beans, StockLedger.OUTGOING, 20, null, DAY.atTime(11, 0));
+
+        inventoryAnalyticsService.refresh();
+
+        IngredientAnalytics state = analytics(beans);
+        // (4 x 100 + 4 x 200) / 8
+        assertEquals(new BigDecimal("150.0000"), state.getAverageCost());
+        assertEquals(0, state.getOnHand());
+
+        LocalDateTime recent = LocalDateTime.now().minusMinutes(1);
+        record(beans, StockLedger.ADJUSTMENT, 0, null, recent);
+        record(beans, StockLedger.INCOMING, 6, "90", recent.plusSeconds(1));
+        inventoryAnalyticsService.refresh();
+
+        state = analytics(beans);
+        assertEquals(6, state.getOnHand());
+        assertEquals(new BigDecimal("90.0000"), state.getAverageCost());
+    }
+
+    @Test
+    void refresh_foldsEachTransactionOnceIncludingOnesCommittedBehindTheCheckpoint() {
+        UUID sugar = product("Sugar");
+        LocalDateTime earlier = LocalDateTime.now().minusMinutes(5);
+        record(sugar, StockLedger.INCOMING, 10, "50", earlier);
+        assertEquals(1, inventoryAnalyticsService.refresh());
+        assertEquals(0, inventoryAnalyticsService.refresh());
+
+        // Timed before the checkpoint, committed after it
+        LocalDateTime late = inventoryAnalyticsService.foldedUpTo().minusMinutes(1);
+        assertTrue(late.isAfter(earlier));
+        record(sugar, StockLedger.OUTGOING, 3, null, late);
+
+        assertEquals(1, inventoryAnalyticsService.refresh());
+        assertEquals(0, inventoryAnalyticsService.refresh());
+        assertEquals(7, analytics(sugar).getOnHand());
+    }
+
+    @Test
+    void failedChunk_isRetriedByTheNextRefreshWithoutFoldingTheOthersTwice() {
+        UUID milk = product("Milk");
+        UUID beans = product("Beans");
+        record(milk, StockLedger.INCOMING, 10, "100", DAY.atTime(8, 0));
+        record(beans, StockLedger.INCOMING, 20, "300", DAY.atTime(8, 0));
+        record(beans, StockLedger.OUTGOING, 5, null, DAY.atTime(9, 0));
+
+        // One product per chunk: the first chunk commits, the second fails
+        Answer<?> realMethod = mockingDetails(dailyIngredientUsageRepository).getMockCreationSettings().getDefaultAnswer();
+        AtomicInteger saves = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (saves.incrementAndGet() == 2) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return realMethod.answer(invocation);
+        }).when(dailyIngredientUsageRepository).saveAll(any());
+
+        int firstPass = inventoryAnalyticsService.refresh();
+        assertTrue(firstPass == 1 || firstPass == 2, "only the first chunk is folded in");
+        assertNull(inventoryAnalyticsService.foldedUpTo());
+        assertEquals(1, ingredientAnalyticsRepository.count());
+
+        assertEquals(3 - firstPass, inventoryAnalyticsService.refresh());
+        assertNotNull(inventoryAnalyticsService.foldedUpTo());
+
+        assertEquals(10, analytics(milk).getOnHand());
+        assertEquals(15, analytics(beans).getOnHand());
+        assertEquals(new BigDecimal("300.0000"), analytics(beans).getAverageCost());
+        assertEquals(5, usage(beans, DAY).getConsumedQuantity());
+        assertEquals(10, usage(milk, DAY).getReceivedQuantity());
+    }
+
+    private UUID product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.ZERO);
+        product.setCategory(category);
+        return productRepository.save(product).getId();
+    }
+
+    private InventoryTransaction record(UUID productId, String type, int quantity, String unitCost, LocalDateTime time) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setProduct(productRepository.getReferenceById(productId));
+        transaction.setTransactionType(type);
+        transaction.setQuantity(quantity);
+        transaction.setUnitCost(unitCost != null ? new BigDecimal(unitCost) : null);
+        transaction.setTransactionTime(time);
+        transaction.setUser(user);
+        return inventoryTransactionRepository.save(transaction);
+    }
+
+    private IngredientAnalytics analytics(UUID productId) {
+        return ingredientAnalyticsRepository.findById(productId).orElseThrow();
+    }
+
+    private DailyIngredientUsage usage(UUID productId, LocalDate day) {
+        List<DailyIngredientUsage> rows = dailyIngredientUsageRepository.findByProductIdInAndUsageDateBetween(
+                List.of(productId), day, day);
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+}
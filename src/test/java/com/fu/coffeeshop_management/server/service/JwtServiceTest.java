@@ -0,0 +1,59 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.JwtMetrics;
+import com.fu.coffeeshop_management.server.entity.Role;
+import com.fu.coffeeshop_management.server.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "c2VjdXJpdHlrZXlmb3Jjb2ZmZWVzaG9wbWFuYWdlbWVudA==";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 16);
+
+    @Test
+    void metrics_countCacheMissesSeparatelyFromVerifications() {
+        String token = jwtService.generateToken(manager());
+
+        assertTrue(jwtService.verify(token).isPresent());
+        assertTrue(jwtService.verify(token).isPresent());
+        assertTrue(jwtService.verify(token).isPresent());
+        assertTrue(jwtService.verify("not-a-token").isEmpty());
+
+        JwtMetrics metrics = jwtService.getMetrics();
+        assertEquals(2, metrics.getVerifications());
+        assertEquals(2, metrics.getCacheHits());
+        assertEquals(2, metrics.getCacheMisses());
+        assertEquals(1, metrics.getFailures());
+        assertEquals(0.5, metrics.getHitRatio());
+        assertEquals(1, metrics.getCacheSize());
+    }
+
+    @Test
+    void expiredCachedToken_isAMissAndIsNotVerifiedAgain() throws Exception {
+        JwtService shortLived = new JwtService(SECRET, 2_000, 16);
+        String token = shortLived.generateToken(manager());
+        assertTrue(shortLived.verify(token).isPresent());
+
+        // Expiry is kept in whole seconds, so the token lives between one and two seconds
+        Thread.sleep(2_100);
+
+        assertTrue(shortLived.verify(token).isEmpty());
+        JwtMetrics metrics = shortLived.getMetrics();
+        assertEquals(1, metrics.getVerifications());
+        assertEquals(2, metrics.getCacheMisses());
+        assertEquals(0, metrics.getCacheSize());
+    }
+
+    private static User manager() {
+        Role role = new Role();
+        role.setName("MANAGER");
+        User user = new User();
+        user.setEmail("manager@example.com");
+        user.setFullname("Manager");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,212 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.H2DataJpaTest;
+import com.fu.coffeeshop_management.server.entity.MailOutbox;
+import com.fu.coffeeshop_management.server.repository.MailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the mail outbox against a real (in-memory) database with a stub transport: delivery after
+ * commit, retries with backoff, giving up after max-attempts, nothing sent on rollback, and bodies
+ * cleared once a message is finished.
+ */
+@H2DataJpaTest
+@TestPropertySource(properties = {
+        "application.mail.outbox.max-attempts=3",
+        "application.mail.outbox.initial-backoff=PT1H",
+        "application.mail.outbox.max-backoff=PT4H",
+        "application.mail.outbox.retention=PT0S"
+})
+@Import({MailOutboxService.class, MailOutboxServiceTest.StubTransportConfig.class})
+class MailOutboxServiceTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    @Autowired private MailOutboxService mailOutboxService;
+    @Autowired private MailOutboxRepository mailOutboxRepository;
+    @Autowired private StubTransport transport;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        mailOutboxRepository.deleteAll();
+        transport.reset();
+    }
+
+    @Test
+    void enqueue_isDeliveredAfterCommitAndBodyIsCleared() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                mailOutboxService.enqueue("a@example.com", "Your New Password", "secret-123", true));
+
+        await(() -> single().getStatus().equals(MailOutboxService.SENT));
+
+        assertEquals(List.of("a@example.com:secret-123"), transport.sent);
+        MailOutbox message = single();
+        assertEquals(1, message.getAttempts());
+        assertNotNull(message.getSentAt());
+        assertEquals(MailOutboxService.REMOVED_BODY, message.getBody());
+    }
+
+    @Test
+    void enqueue_rolledBack_sendsNothing() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            mailOutboxService.enqueue("a@example.com", "Your New Password", "secret-123", true);
+            status.setRollbackOnly();
+        });
+
+        mailOutboxService.dispatch();
+
+        assertEquals(0, mailOutboxRepository.count());
+        assertEquals(0, transport.attempts.get());
+    }
+
+    @Test
+    void failedDelivery_isRetriedWithBackoffThenSent() {
+        transport.failuresLeft.set(1);
+        LocalDateTime before = LocalDateTime.now();
+        mailOutboxService.enqueue("a@example.com", "Subject", "body", false);
+
+        await(() -> single().getAttempts() == 1 && single().getStatus().equals(MailOutboxService.PENDING));
+
+        MailOutbox retry = single();
+        assertTrue(retry.getLastError().contains("smtp down"));
+        assertFalse(retry.getNextAttemptAt().isBefore(before.plusHours(1)));
+        assertEquals("body", retry.getBody());
+        assertEquals(0, mailOutboxService.dispatch(), "not due before the backoff has passed");
+
+        makeDue(retry);
+        dispatchUntil(() -> single().getStatus().equals(MailOutboxService.SENT));
+
+        assertEquals(2, single().getAttempts());
+        assertNull(single().getLastError());
+        assertEquals(List.of("a@example.com:body"), transport.sent);
+    }
+
+    @Test
+    void deliveryFailingEveryAttempt_givesUpAfterMaxAttempts() {
+        transport.failuresLeft.set(Integer.MAX_VALUE);
+        mailOutboxService.enqueue("a@example.com", "Subject", "secret-123", false);
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            int expected = attempt;
+            dispatchUntil(() -> single().getAttempts() == expected && !single().getStatus().equals(MailOutboxService.SENDING));
+            if (attempt < 3) {
+                assertEquals(MailOutboxService.PENDING, single().getStatus());
+                makeDue(single());
+            }
+        }
+
+        MailOutbox failed = single();
+        assertEquals(MailOutboxService.FAILED, failed.getStatus());
+        assertEquals(MailOutboxService.REMOVED_BODY, failed.getBody());
+
+        makeDue(failed);
+        mailOutboxService.dispatch();
+        assertEquals(3, transport.attempts.get());
+        assertTrue(transport.sent.isEmpty());
+    }
+
+    @Test
+    void backoff_doublesUpToTheCap() {
+        assertEquals(Duration.ofHours(1), mailOutboxService.backoff(1));
+        assertEquals(Duration.ofHours(2), mailOutboxService.backoff(2));
+        assertEquals(Duration.ofHours(4), mailOutboxService.backoff(3));
+        assertEquals(Duration.ofHours(4), mailOutboxService.backoff(10));
+    }
+
+    @Test
+    void purgeFinished_deletesOnlySentAndFailedMessages() {
+        mailOutboxService.enqueue("a@example.com", "Subject", "body", false);
+        await(() -> single().getStatus().equals(MailOutboxService.SENT));
+        transport.failuresLeft.set(Integer.MAX_VALUE);
+        mailOutboxService.enqueue("b@example.com", "Subject", "body", false);
+        await(() -> mailOutboxRepository.countByStatus(MailOutboxService.PENDING) == 1);
+
+        assertEquals(1, mailOutboxService.purgeFinished());
+
+        assertEquals("b@example.com", single().getRecipient());
+    }
+
+    private MailOutbox single() {
+        List<MailOutbox> all = mailOutboxRepository.findAll();
+        assertEquals(1, all.size());
+        return all.get(0);
+    }
+
+    private void makeDue(MailOutbox message) {
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        mailOutboxRepository.save(message);
+    }
+
+    /**
+     * Dispatches until the condition holds. A pass started by an after-commit wake-up may still be
+     * running, in which case dispatch() only asks it to look again.
+     */
+    private void dispatchUntil(BooleanSupplier condition) {
+        await(() -> {
+            mailOutboxService.dispatch();
+            return condition.getAsBoolean();
+        });
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within " + WAIT);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+
+    static class StubTransport implements MailTransport {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public void send(String to, String subject, String body, boolean html) throws Exception {
+            attempts.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("smtp down");
+            }
+            sent.add(to + ":" + body);
+        }
+
+        void reset() {
+            sent.clear();
+            attempts.set(0);
+            failuresLeft.set(0);
+        }
+    }
+
+    @TestConfiguration
+    static class StubTransportConfig {
+        @Bean
+        StubTransport stubTransport() {
+            return new StubTransport();
+        }
+    }
+}
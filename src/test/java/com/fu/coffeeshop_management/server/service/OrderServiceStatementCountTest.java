@@ -0,0 +1,137 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.H2DataJpaTest;
+import com.fu.coffeeshop_management.server.dto.OrderItemRequestDTO;
+import com.fu.coffeeshop_management.server.dto.OrderRequestDTO;
+import com.fu.coffeeshop_management.server.dto.OrderResponseDTO;
+import com.fu.coffeeshop_management.server.entity.*;
+import com.fu.coffeeshop_management.server.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements Hibernate prepares while orders are created and listed, against a real (in-memory)
+ * database with the application's JDBC batching settings.
+ */
+@H2DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OrderService.class, ProductCatalogCache.class})
+class OrderServiceStatementCountTest {
+
+    @Autowired private OrderService orderService;
+    @Autowired private ProductCatalogCache productCatalogCache;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private TableOrderRepository tableOrderRepository;
+    @Autowired private OrderDetailRepository orderDetailRepository;
+    @Autowired private TableInfoRepository tableInfoRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private User staff;
+    private final List<String> productIds = new ArrayList<>();
+    private final List<String> tableIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tableOrderRepository.deleteAll();
+        orderDetailRepository.deleteAll();
+        orderRepository.deleteAll();
+        tableInfoRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+
+        Role role = new Role();
+        role.setName("CASHIER");
+        role = roleRepository.save(role);
+
+        User cashier = new User();
+        cashier.setEmail("cashier@example.com");
+        cashier.setPassword("x");
+        cashier.setFullname("Cashier");
+        cashier.setMobile("0900000000");
+        cashier.setRole(role);
+        staff = userRepository.save(cashier);
+
+        Category drinks = new Category();
+        drinks.setName("Drinks");
+        drinks = categoryRepository.save(drinks);
+
+        productIds.clear();
+        for (int i = 0; i < 12; i++) {
+            Product product = new Product();
+            product.setName("Drink " + i);
+            product.setPrice(new BigDecimal("25000"));
+            product.setCategory(drinks);
+            productIds.add(productRepository.save(product).getId().toString());
+        }
+
+        tableIds.clear();
+        for (int i = 0; i < 3; i++) {
+            TableInfo table = TableInfo.builder().name("Table " + i).location("Floor 1").status("AVAILABLE").seatCount(4).build();
+            tableIds.add(tableInfoRepository.save(table).getId().toString());
+        }
+
+        productCatalogCache.invalidate();
+        productCatalogCache.findAll();
+    }
+
+    @Test
+    void createOrderFromDTO_largeOrder_loadsByIdSetsAndBatchesWrites() {
+        List<OrderItemRequestDTO> items = productIds.stream().map(id -> new OrderItemRequestDTO(id, 2)).toList();
+        Statistics statistics = statistics();
+
+        orderService.createOrderFromDTO(new OrderRequestDTO(tableIds, items, "note", null), staff.getId());
+
+        // 1 order, 12 lines and 3 table links inserted; 3 tables marked occupied
+        assertEquals(16, statistics.getEntityInsertCount());
+        assertEquals(3, statistics.getEntityUpdateCount());
+        // select staff, select tables (one IN query), insert order, one batch each of lines,
+        // table links and table updates; products come from the warm catalog cache
+        assertEquals(6, statistics.getPrepareStatementCount());
+
+        Order order = orderRepository.findAll().get(0);
+        assertEquals(new BigDecimal("600000.00"), order.getTotalPrice());
+        assertTrue(tableInfoRepository.findAll().stream().allMatch(table -> "OCCUPIED".equals(table.getStatus())));
+    }
+
+    @Test
+    void getOrders_usesKeysetQueriesWithoutFetchingCollections() {
+        List<OrderItemRequestDTO> items = productIds.stream().map(id -> new OrderItemRequestDTO(id, 1)).toList();
+        orderService.createOrderFromDTO(new OrderRequestDTO(tableIds, items, null, null), staff.getId());
+        Statistics statistics = statistics();
+
+        List<OrderResponseDTO> orders = orderService.getOrders(null, null, null, null, null);
+
+        // headers, table rows, item rows
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, orders.size());
+        assertEquals(12, orders.get(0).getItems().size());
+        assertEquals(3, orders.get(0).getTables().size());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
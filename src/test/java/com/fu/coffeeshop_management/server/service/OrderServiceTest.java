@@ -0,0 +1,89 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.OrderItemRequestDTO;
+import com.fu.coffeeshop_management.server.dto.OrderPatchRequestDTO;
+import com.fu.coffeeshop_management.server.dto.OrderRequestDTO;
+import com.fu.coffeeshop_management.server.entity.Order;
+import com.fu.coffeeshop_management.server.entity.OrderDetail;
+import com.fu.coffeeshop_management.server.entity.Product;
+import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.repository.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock private OrderRepository orderRepository;
+    @Mock private TableInfoRepository tableInfoRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private OrderDetailRepository orderDetailRepository;
+    @Mock private TableOrderRepository tableOrderRepository;
+    @Mock private ProductCatalogCache productCatalogCache;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @Test
+    void createOrderFromDTO_missingProduct_isRejected() {
+        User staff = User.builder().id(UUID.randomUUID()).build();
+        String unknownId = UUID.randomUUID().toString();
+
+        when(userRepository.findById(staff.getId())).thenReturn(Optional.of(staff));
+        when(productCatalogCache.findAllById(anyCollection())).thenReturn(Map.of());
+
+        OrderRequestDTO request = new OrderRequestDTO(List.of(), List.of(new OrderItemRequestDTO(unknownId, 1)), null, null);
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> orderService.createOrderFromDTO(request, staff.getId()));
+
+        assertTrue(ex.getMessage().contains(unknownId));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void patchOrder_bumpingOneQuantity_keepsOtherLinesAndAdjustsTotal() {
+        User staff = User.builder().id(UUID.randomUUID()).build();
+        Product coffee = Product.builder().id(UUID.randomUUID()).price(new BigDecimal("30000")).build();
+        Product tea = Product.builder().id(UUID.randomUUID()).price(new BigDecimal("20000")).build();
+
+        Order order = Order.builder().id(UUID.randomUUID()).status("SERVING").staff(staff).totalPrice(new BigDecimal("80000.00")).build();
+        OrderDetail coffeeLine = OrderDetail.builder().id(UUID.randomUUID()).order(order).product(coffee)
+                .quantity(2).price(coffee.getPrice()).build();
+        OrderDetail teaLine = OrderDetail.builder().id(UUID.randomUUID()).order(order).product(tea)
+                .quantity(1).price(tea.getPrice()).build();
+        order.getOrderDetails().add(coffeeLine);
+        order.getOrderDetails().add(teaLine);
+
+        when(orderRepository.findForScreenById(order.getId())).thenReturn(Optional.of(order));
+        when(userRepository.findById(staff.getId())).thenReturn(Optional.of(staff));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        OrderPatchRequestDTO request = new OrderPatchRequestDTO(
+                List.of(new OrderItemRequestDTO(coffee.getId().toString(), 3)), null, null);
+        orderService.patchOrder(order.getId().toString(), request, staff.getId());
+
+        assertEquals(2, order.getOrderDetails().size());
+        assertEquals(3, coffeeLine.getQuantity());
+        assertEquals(1, teaLine.getQuantity());
+        assertEquals(new BigDecimal("110000.00"), order.getTotalPrice());
+        verify(orderDetailRepository, never()).deleteAll(anyIterable());
+        verify(orderDetailRepository, never()).deleteAllInBatch(anyIterable());
+        verify(productCatalogCache, never()).findAllById(anyCollection());
+    }
+}
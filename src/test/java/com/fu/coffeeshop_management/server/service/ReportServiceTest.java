@@ -0,0 +1,81 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.dto.ItemReportDetailDTO;
+import com.fu.coffeeshop_management.server.dto.PeriodItemReportDTO;
+import com.fu.coffeeshop_management.server.repository.OrderDetailRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock private OrderDetailRepository orderDetailRepository;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    @Test
+    void getItemReport_weekly_usesOneQueryAndRanksPerPeriod() {
+        LocalDate start = LocalDate.of(2025, 3, 3);
+        when(orderDetailRepository.findDailyItemSales(any(), any())).thenReturn(List.of(
+                row(start, "Latte", 5, "225000"),
+                row(start.plusDays(2), "Latte", 4, "180000"),
+                row(start.plusDays(1), "Espresso", 7, "245000"),
+                row(start.plusDays(3), "Trà đào", 1, "40000"),
+                row(start.plusDays(3), "Bạc xỉu", 2, "70000"),
+                row(start.plusDays(6), "Cold brew", 3, "135000"),
+                row(start.plusDays(7), "Espresso", 2, "70000")));
+
+        List<PeriodItemReportDTO> report = reportService.getItemReport(
+                start.atStartOfDay(), start.plusDays(9).atTime(23, 0), "WEEK");
+
+        verify(orderDetailRepository, times(1)).findDailyItemSales(
+                LocalDateTime.of(2025, 3, 3, 0, 0), start.plusDays(9).atTime(java.time.LocalTime.MAX));
+        assertEquals(2, report.size());
+
+        PeriodItemReportDTO firstWeek = report.get(0);
+        assertEquals("202510", firstWeek.getPeriodLabel());
+        assertEquals(List.of("Latte", "Espresso", "Cold brew"), names(firstWeek.getTopItems()));
+        assertEquals(new BigDecimal("405000"), firstWeek.getTopItems().get(0).getTotalRevenue());
+        assertEquals(9L, firstWeek.getTopItems().get(0).getTotalUnit());
+        assertEquals(List.of("Trà đào", "Bạc xỉu", "Cold brew"), names(firstWeek.getBottomItems()));
+
+        PeriodItemReportDTO secondWeek = report.get(1);
+        assertEquals(List.of("Espresso"), names(secondWeek.getTopItems()));
+        assertEquals(List.of("Espresso"), names(secondWeek.getBottomItems()));
+    }
+
+    @Test
+    void getItemReport_periodsWithoutSalesAreEmpty() {
+        when(orderDetailRepository.findDailyItemSales(any(), any())).thenReturn(List.of());
+
+        List<PeriodItemReportDTO> report = reportService.getItemReport(
+                LocalDateTime.of(2025, 1, 15, 0, 0), LocalDateTime.of(2025, 3, 2, 0, 0), "MONTH");
+
+        assertEquals(List.of("01-2025", "02-2025", "03-2025"),
+                report.stream().map(PeriodItemReportDTO::getPeriodLabel).toList());
+        assertTrue(report.stream().allMatch(period -> period.getTopItems().isEmpty() && period.getBottomItems().isEmpty()));
+        verify(orderDetailRepository).findDailyItemSales(LocalDateTime.of(2025, 1, 1, 0, 0),
+                LocalDate.of(2025, 3, 2).atTime(java.time.LocalTime.MAX));
+    }
+
+    private static Object[] row(LocalDate day, String name, long units, String revenue) {
+        return new Object[]{day, name, units, new BigDecimal(revenue)};
+    }
+
+    private static List<String> names(List<ItemReportDetailDTO> items) {
+        return items.stream().map(ItemReportDetailDTO::getItemName).toList();
+    }
+}
@@ -0,0 +1,83 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.entity.AnalyticsCheckpoint;
+import com.fu.coffeeshop_management.server.entity.Role;
+import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.repository.AnalyticsCheckpointRepository;
+import com.fu.coffeeshop_management.server.repository.BillRepository;
+import com.fu.coffeeshop_management.server.repository.DailyRevenueRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueRollupServiceTest {
+
+    @Mock private DailyRevenueRollupRepository rollupRepository;
+    @Mock private BillRepository billRepository;
+    @Mock private AnalyticsCheckpointRepository checkpointRepository;
+
+    @InjectMocks
+    private RevenueRollupService revenueRollupService;
+
+    @Test
+    void rebuild_byANonManager_isRejectedBeforeTouchingTheRollup() {
+        assertThrows(IllegalStateException.class,
+                () -> revenueRollupService.rebuild(user("CASHIER"), null, null));
+        assertThrows(IllegalStateException.class,
+                () -> revenueRollupService.rebuild((User) null, null, null));
+
+        verifyNoInteractions(rollupRepository, billRepository);
+    }
+
+    @Test
+    void rebuild_byAManager_recomputesTheRange() {
+        LocalDate day = LocalDate.of(2025, 3, 3);
+        when(rollupRepository.insertFromBills(any(), any(), any())).thenReturn(1);
+
+        assertEquals(1, revenueRollupService.rebuild(user("MANAGER"), day, day));
+
+        verify(rollupRepository).deleteRange(day, day);
+    }
+
+    @Test
+    void backfillOnce_scansTheBillsOnlyWhileNoCheckpointIsRecorded() {
+        when(checkpointRepository.existsById(RevenueRollupService.BACKFILL_CHECKPOINT)).thenReturn(false, true);
+        when(rollupRepository.count()).thenReturn(0L);
+
+        // No bill paid yet: the scan finds nothing but is still recorded
+        assertTrue(revenueRollupService.backfillOnce());
+        assertFalse(revenueRollupService.backfillOnce());
+
+        verify(billRepository, times(1)).findFirstIssuedTime();
+        verify(checkpointRepository, times(1)).save(any(AnalyticsCheckpoint.class));
+    }
+
+    @Test
+    void backfillOnce_withAFilledRollup_onlyRecordsTheCheckpoint() {
+        when(checkpointRepository.existsById(RevenueRollupService.BACKFILL_CHECKPOINT)).thenReturn(false);
+        when(rollupRepository.count()).thenReturn(30L);
+
+        assertFalse(revenueRollupService.backfillOnce());
+
+        verifyNoInteractions(billRepository);
+        verify(checkpointRepository).save(any(AnalyticsCheckpoint.class));
+    }
+
+    private static User user(String roleName) {
+        Role role = new Role();
+        role.setName(roleName);
+        User user = new User();
+        user.setEmail(roleName.toLowerCase() + "@example.com");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,166 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.H2DataJpaTest;
+import com.fu.coffeeshop_management.server.dto.CashTransactionRequest;
+import com.fu.coffeeshop_management.server.dto.EndShiftRequest;
+import com.fu.coffeeshop_management.server.dto.StartShiftRequest;
+import com.fu.coffeeshop_management.server.entity.CashTransaction;
+import com.fu.coffeeshop_management.server.entity.Role;
+import com.fu.coffeeshop_management.server.entity.Shift;
+import com.fu.coffeeshop_management.server.entity.User;
+import com.fu.coffeeshop_management.server.repository.AnalyticsCheckpointRepository;
+import com.fu.coffeeshop_management.server.repository.CashTransactionRepository;
+import com.fu.coffeeshop_management.server.repository.RoleRepository;
+import com.fu.coffeeshop_management.server.repository.ShiftRepository;
+import com.fu.coffeeshop_management.server.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records cash on one open shift from many threads against a real (in-memory) database and checks
+ * that the running totals on the shift lose nothing and every transaction sees its own balance.
+ */
+@H2DataJpaTest
+@Import(ShiftService.class)
+class ShiftCashConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired private ShiftService shiftService;
+    @Autowired private ShiftRepository shiftRepository;
+    @Autowired private CashTransactionRepository cashTransactionRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AnalyticsCheckpointRepository analyticsCheckpointRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User cashier;
+    private UUID shiftId;
+
+    @BeforeEach
+    void setUp() {
+        analyticsCheckpointRepository.deleteAll();
+        cashTransactionRepository.deleteAll();
+        shiftRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+
+        Role role = new Role();
+        role.setName("CASHIER");
+        role = roleRepository.save(role);
+
+        User user = new User();
+        user.setEmail("cashier@example.com");
+        user.setPassword("x");
+        user.setFullname("Cashier");
+        user.setMobile("0900000000");
+        user.setRole(role);
+        cashier = userRepository.save(user);
+
+        shiftId = shiftService.startShift(cashier, new StartShiftRequest(new BigDecimal("500000"))).getId();
+    }
+
+    @Test
+    void concurrentCashTransactions_keepTotalsAndGiveDistinctBalances() throws Exception {
+        int perThread = 25;
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < perThread; i++) {
+                shiftService.recordCashTransaction(cashier, cashIn("1000"));
+            }
+            return null;
+        });
+
+        int total = THREADS * perThread;
+        Shift shift = shiftRepository.findById(shiftId).orElseThrow();
+        assertEquals(total, shift.getTransactionCount());
+        assertEquals(0, new BigDecimal(1000L * total).compareTo(shift.getTotalCashIn()));
+        assertEquals(0, new BigDecimal(500000 + 1000L * total).compareTo(shift.expectedCash()));
+
+        List<CashTransaction> transactions = cashTransactionRepository.findByShiftIdOrderByTimestampAsc(shiftId);
+        assertEquals(total, transactions.size());
+        assertEquals(total, transactions.stream().map(t -> t.getRunningBalance().stripTrailingZeros()).distinct().count());
+    }
+
+    @Test
+    void endShiftRacingACashTransaction_failsOnTheVersionCheck() {
+        ExecutorService till = Executors.newSingleThreadExecutor();
+        try {
+            TransactionTemplate endShiftTx = new TransactionTemplate(transactionManager);
+            // Mapped to 409 by ApiExceptionHandler.
+            assertThrows(ObjectOptimisticLockingFailureException.class,
+                    () -> endShiftTx.executeWithoutResult(status -> {
+                        // Read the open shift, then let another till record cash on it before this commits.
+                        shiftService.endShift(cashier, new EndShiftRequest(new BigDecimal("501000")));
+                        try {
+                            till.submit(() -> shiftService.recordCashTransaction(cashier, cashIn("1000")))
+                                    .get(30, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }));
+        } finally {
+            till.shutdownNow();
+        }
+
+        Shift shift = shiftRepository.findById(shiftId).orElseThrow();
+        assertEquals("OPEN", shift.getStatus());
+        assertEquals(1, shift.getTransactionCount());
+    }
+
+    @Test
+    void backfillCashTotalsOnce_repairsStaleShiftsOnlyOnTheFirstRun() {
+        shiftService.recordCashTransaction(cashier, cashIn("1000"));
+        Shift stale = shiftRepository.findById(shiftId).orElseThrow();
+        stale.setTransactionCount(0);
+        stale.setTotalCashIn(BigDecimal.ZERO);
+        shiftRepository.save(stale);
+
+        assertEquals(1, shiftService.backfillCashTotalsOnce());
+        assertEquals(1, shiftRepository.findById(shiftId).orElseThrow().getTransactionCount());
+
+        stale = shiftRepository.findById(shiftId).orElseThrow();
+        stale.setTransactionCount(0);
+        shiftRepository.save(stale);
+
+        assertEquals(-1, shiftService.backfillCashTotalsOnce());
+        assertEquals(0, shiftRepository.findById(shiftId).orElseThrow().getTransactionCount());
+    }
+
+    private static CashTransactionRequest cashIn(String amount) {
+        return CashTransactionRequest.builder().transactionType("CASH_IN").amount(new BigDecimal(amount)).build();
+    }
+
+    private static void runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
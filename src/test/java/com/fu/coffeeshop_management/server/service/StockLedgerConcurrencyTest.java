@@ -0,0 +1,242 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.H2DataJpaTest;
+import com.fu.coffeeshop_management.server.dto.StockMovement;
+import com.fu.coffeeshop_management.server.entity.*;
+import com.fu.coffeeshop_management.server.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers the stock ledger from many threads against a real (in-memory) database and checks that
+ * no movement is lost and stock never goes negative.
+ */
+@H2DataJpaTest
+@Import({StockLedger.class, LowStockMonitor.class, ProductCatalogCache.class})
+class StockLedgerConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired private StockLedger stockLedger;
+    @Autowired private ProductCatalogCache productCatalogCache;
+    @Autowired private LowStockMonitor lowStockMonitor;
+    @Autowired private StockRepository stockRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private InventoryTransactionRepository inventoryTransactionRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        inventoryTransactionRepository.deleteAll();
+        stockRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Role role = new Role();
+        role.setName("CASHIER");
+        role = roleRepository.save(role);
+
+        User cashier = new User();
+        cashier.setEmail("cashier@example.com");
+        cashier.setPassword("x");
+        cashier.setFullname("Cashier");
+        cashier.setMobile("0900000000");
+        cashier.setRole(role);
+        user = userRepository.save(cashier);
+
+        Category ingredient = new Category();
+        ingredient.setName("Ingredient");
+        category = categoryRepository.save(ingredient);
+    }
+
+    @Test
+    void concurrentIncomingMovements_loseNoUpdates() throws Exception {
+        UUID productId = newProduct("Milk", 0);
+        int perThread = 50;
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < perThread; i++) {
+                stockLedger.apply(List.of(new StockMovement(productId, StockLedger.INCOMING, 1)), user);
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * perThread, quantity(productId));
+        assertEquals(THREADS * perThread, inventoryTransactionRepository.count());
+    }
+
+    @Test
+    void concurrentOutgoingMovements_neverOversell() throws Exception {
+        UUID productId = newProduct("Coffee beans", 100);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS * 2, () -> {
+            for (int i = 0; i < 5; i++) {
+                try {
+                    stockLedger.apply(List.of(new StockMovement(productId, StockLedger.OUTGOING, 7)), user);
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(14, succeeded.get());
+        assertEquals(THREADS * 2 * 5 - 14, rejected.get());
+        assertEquals(100 - 14 * 7, quantity(productId));
+        assertEquals(14, inventoryTransactionRepository.count());
+    }
+
+    @Test
+    void concurrentDeliveriesInOppositeLineOrder_applyEveryLine() throws Exception {
+        UUID a = newProduct("Sugar", 0);
+        UUID b = newProduct("Tea", 0);
+        int perThread = 25;
+
+        runConcurrently(THREADS, () -> {
+            boolean reversed = ThreadLocalRandom.current().nextBoolean();
+            for (int i = 0; i < perThread; i++) {
+                List<StockMovement> delivery = new ArrayList<>(List.of(
+                        new StockMovement(a, StockLedger.INCOMING, 2),
+                        new StockMovement(b, StockLedger.INCOMING, 3)));
+                if (reversed) {
+                    delivery = delivery.reversed();
+                }
+                List<StockLedger.Posting> postings = stockLedger.apply(delivery, user);
+                assertEquals(delivery.get(0).productId(), postings.get(0).transaction().getProduct().getId());
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * perThread * 2, quantity(a));
+        assertEquals(THREADS * perThread * 3, quantity(b));
+    }
+
+    @Test
+    void failingLine_rollsBackWholeDelivery() {
+        UUID a = newProduct("Cream", 5);
+        UUID b = newProduct("Syrup", 1);
+
+        assertThrows(IllegalStateException.class, () -> stockLedger.apply(List.of(
+                new StockMovement(a, StockLedger.INCOMING, 10),
+                new StockMovement(b, StockLedger.OUTGOING, 2)), user));
+
+        assertEquals(5, quantity(a));
+        assertEquals(1, quantity(b));
+        assertEquals(0, inventoryTransactionRepository.count());
+    }
+
+    @Test
+    void firstMovement_createsStockRow() {
+        Product product = new Product();
+        product.setName("Cocoa");
+        product.setPrice(BigDecimal.ONE);
+        product.setStatus("active");
+        product.setCategory(category);
+        UUID productId = productRepository.save(product).getId();
+
+        List<StockLedger.Posting> postings = stockLedger.apply(
+                List.of(new StockMovement(productId, StockLedger.INCOMING, 12)), user);
+
+        assertEquals(12, postings.get(0).stockAfter());
+        assertEquals(12, quantity(productId));
+    }
+
+    @Test
+    void deliveryNote_isStoredOnEveryTransaction() {
+        UUID a = newProduct("Beans", 0);
+        UUID b = newProduct("Sugar", 0);
+
+        stockLedger.apply(List.of(
+                new StockMovement(a, StockLedger.INCOMING, 5, null, "Invoice 42"),
+                new StockMovement(b, StockLedger.INCOMING, 5, null, "Invoice 42")), user);
+
+        assertTrue(inventoryTransactionRepository.findAll().stream().allMatch(t -> "Invoice 42".equals(t.getNote())));
+    }
+
+    @Test
+    void productMovedOutOfIngredients_leavesTheLowStockSet() throws Exception {
+        UUID milk = newProduct("Milk", 2);
+        lowStockMonitor.stockChanged(milk);
+        awaitLowStock(milk, true);
+
+        Category drinks = new Category();
+        drinks.setName("Drinks");
+        Category moved = categoryRepository.save(drinks);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productRepository.findById(milk).orElseThrow().setCategory(moved);
+            lowStockMonitor.stockChanged(milk);
+        });
+
+        awaitLowStock(milk, false);
+    }
+
+    private int quantity(UUID productId) {
+        return stockRepository.findById(productId).orElseThrow().getQuantityInStock();
+    }
+
+    private void awaitLowStock(UUID productId, boolean low) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (lowStockMonitor.current().stream().anyMatch(item -> productId.equals(item.getProductId())) != low) {
+            assertTrue(System.currentTimeMillis() < deadline, "low stock should be " + low);
+            Thread.sleep(20);
+        }
+    }
+
+    private UUID newProduct(String name, int quantity) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Product product = new Product();
+            product.setName(name);
+            product.setPrice(BigDecimal.ONE);
+            product.setStatus("active");
+            product.setCategory(category);
+            product = productRepository.save(product);
+            stockRepository.save(Stock.builder().product(product).quantityInStock(quantity).reorderLevel(10).build());
+            productCatalogCache.invalidate();
+            return product.getId();
+        });
+    }
+
+    private static void runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.fu.coffeeshop_management.server.service;
+
+import com.fu.coffeeshop_management.server.entity.Role;
+import com.fu.coffeeshop_management.server.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrincipalCacheTest {
+
+    private static final String EMAIL = "cashier@example.com";
+
+    private final AtomicReference<String> storedRole = new AtomicReference<>("CASHIER");
+    private final AtomicInteger loads = new AtomicInteger();
+    private Runnable duringLoad = () -> { };
+
+    private final UserPrincipalCache cache = new UserPrincipalCache(username -> {
+        loads.incrementAndGet();
+        UserDetails user = user(storedRole.get());
+        duringLoad.run();
+        return user;
+    }, 16);
+
+    private final Claims claims = Jwts.claims()
+            .subject(EMAIL)
+            .issuedAt(new Date())
+            .expiration(new Date(System.currentTimeMillis() + 60_000))
+            .add("role", "MANAGER")
+            .build();
+
+    @Test
+    void get_loadsOncePerTokenAndTakesTheAuthoritiesFromTheDatabase() {
+        assertEquals("CASHIER", role(cache.get(claims)));
+        assertEquals("CASHIER", role(cache.get(claims)));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evict_dropsTheCachedPrincipal() {
+        cache.get(claims);
+        storedRole.set("MANAGER");
+
+        cache.evict(EMAIL.toUpperCase());
+
+        assertEquals("MANAGER", role(cache.get(claims)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void principalLoadedBeforeAnEviction_isNotPutBackIntoTheCache() {
+        // The role changes and the cache is evicted after this request has read the old role.
+        duringLoad = () -> {
+            duringLoad = () -> { };
+            storedRole.set("MANAGER");
+            cache.evict(EMAIL);
+        };
+
+        assertEquals("CASHIER", role(cache.get(claims)));
+
+        assertEquals("MANAGER", role(cache.get(claims)));
+        assertEquals("MANAGER", role(cache.get(claims)));
+        assertEquals(2, loads.get());
+    }
+
+    private static String role(UserPrincipalCache.CachedPrincipal principal) {
+        return principal.authorities().stream().map(GrantedAuthority::getAuthority).findFirst().orElseThrow();
+    }
+
+    private static User user(String roleName) {
+        Role role = new Role();
+        role.setName(roleName);
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,44 @@
+package com.fu.coffeeshop_management.server.util;
+
+import com.fu.coffeeshop_management.server.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegacyListingTest {
+
+    @Test
+    void probe_readsOneRowMoreThanAllowed() {
+        assertEquals(LegacyListing.MAX_ROWS + 1, LegacyListing.probe().getPageSize());
+    }
+
+    @Test
+    void requireComplete_returnsAListUpToTheLimit() {
+        List<Integer> rows = Collections.nCopies(LegacyListing.MAX_ROWS, 1);
+
+        assertSame(rows, LegacyListing.requireComplete(rows, "/api/things/page"));
+    }
+
+    @Test
+    void requireComplete_rejectsInsteadOfTruncating() {
+        List<Integer> rows = Collections.nCopies(LegacyListing.MAX_ROWS + 1, 1);
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> LegacyListing.requireComplete(rows, "/api/things/page"));
+        assertTrue(e.getMessage().contains("/api/things/page"));
+    }
+
+    @Test
+    void ok_announcesThePagedSuccessor() {
+        ResponseEntity<List<String>> response = LegacyListing.ok(List.of("a"), "/api/things/page");
+
+        assertEquals(List.of("a"), response.getBody());
+        assertEquals("true", response.getHeaders().getFirst("Deprecation"));
+        assertEquals("</api/things/page>; rel=\"successor-version\"", response.getHeaders().getFirst(HttpHeaders.LINK));
+    }
+}
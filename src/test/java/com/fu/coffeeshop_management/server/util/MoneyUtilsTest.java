@@ -0,0 +1,52 @@
+package com.fu.coffeeshop_management.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyUtilsTest {
+
+    @Test
+    void sumLines_matchesBigDecimalReduce() {
+        List<Map.Entry<BigDecimal, Integer>> lines = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            lines.add(Map.entry(new BigDecimal(i * 1250 + "." + (i % 100 < 10 ? "0" : "") + i % 100), i % 7 + 1));
+        }
+
+        BigDecimal expected = lines.stream()
+                .map(line -> line.getKey().multiply(BigDecimal.valueOf(line.getValue())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal actual = MoneyUtils.sumLines(lines, Map.Entry::getKey, Map.Entry::getValue);
+
+        assertEquals(0, expected.compareTo(actual));
+        assertEquals(MoneyUtils.SCALE, actual.scale());
+    }
+
+    @Test
+    void sumLines_noLinesIsZero() {
+        assertEquals(new BigDecimal("0.00"), MoneyUtils.sumLines(List.<Map.Entry<BigDecimal, Integer>>of(),
+                Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Test
+    void lineTotal_handlesNegativeDeltasAndRounding() {
+        assertEquals(new BigDecimal("-60000.00"), MoneyUtils.lineTotal(new BigDecimal("30000"), -2));
+        assertEquals(0L, MoneyUtils.toMinorUnits(null));
+    }
+
+    @Test
+    void lineTotal_roundsOnceAfterMultiplying() {
+        assertEquals(new BigDecimal("0.01"), MoneyUtils.lineTotal(new BigDecimal("0.005"), 2));
+        assertEquals(new BigDecimal("1.00"), MoneyUtils.lineTotal(new BigDecimal("0.333"), 3));
+        assertEquals(new BigDecimal("-0.01"), MoneyUtils.lineTotal(new BigDecimal("0.005"), -2));
+        assertEquals(new BigDecimal("1.01"), MoneyUtils.sumLines(
+                List.of(Map.entry(new BigDecimal("0.333"), 3), Map.entry(new BigDecimal("0.005"), 2)),
+                Map.Entry::getKey, Map.Entry::getValue));
+    }
+}
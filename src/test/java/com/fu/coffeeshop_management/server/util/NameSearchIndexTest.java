@@ -0,0 +1,50 @@
+package com.fu.coffeeshop_management.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameSearchIndexTest {
+
+    private final List<String> names = List.of(
+            "Cà phê sữa đá", "Bạc xỉu", "Cà phê đen", "Trà đào cam sả", "Phê la", "Bánh mì", "Đường cát");
+
+    private final NameSearchIndex index = NameSearchIndex.of(names);
+
+    @Test
+    void fold_stripsVietnameseDiacritics() {
+        assertEquals("ca phe sua da", NameSearchIndex.fold("Cà Phê  Sữa Đá"));
+        assertEquals("ban 1", NameSearchIndex.fold("Bàn 1"));
+    }
+
+    @Test
+    void search_isAccentAndCaseInsensitive() {
+        assertEquals(List.of("Cà phê đen", "Cà phê sữa đá"), namesOf(index.search("CA PHE")));
+        assertEquals(List.of("Đường cát"), namesOf(index.search("duong")));
+        assertEquals(List.of("Trà đào cam sả"), namesOf(index.search("đào")));
+    }
+
+    @Test
+    void search_ranksPrefixBeforeWordPrefixBeforeSubstring() {
+        assertEquals(List.of("Phê la", "Cà phê đen", "Cà phê sữa đá"), namesOf(index.search("phe")));
+    }
+
+    @Test
+    void search_shortAndUnknownQueries() {
+        assertEquals(List.of("Bánh mì", "Bạc xỉu"), namesOf(index.search("ba")));
+        assertTrue(index.search("xyz").isEmpty());
+        assertTrue(index.search("  ").isEmpty());
+    }
+
+    @Test
+    void search_verifiesTrigramCandidates() {
+        // "phe sua" shares trigrams with "Cà phê đen" but is not a substring of it.
+        assertEquals(List.of("Cà phê sữa đá"), namesOf(index.search("phe sua")));
+    }
+
+    private List<String> namesOf(List<Integer> positions) {
+        return positions.stream().map(names::get).toList();
+    }
+}